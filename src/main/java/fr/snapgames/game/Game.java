@@ -1,17 +1,23 @@
 package fr.snapgames.game;
 
 import fr.snapgames.game.core.behavior.Behavior;
+import fr.snapgames.game.core.behavior.BehaviorScheduler;
 import fr.snapgames.game.core.config.Configuration;
 import fr.snapgames.game.core.entity.*;
 import fr.snapgames.game.core.entity.behaviors.*;
+import fr.snapgames.game.core.gfx.RenderSnapshot;
 import fr.snapgames.game.core.gfx.Renderer;
 import fr.snapgames.game.core.io.Input;
 import fr.snapgames.game.core.math.Vector2D;
 import fr.snapgames.game.core.math.physic.Influencer;
 import fr.snapgames.game.core.math.physic.Material;
 import fr.snapgames.game.core.math.physic.PhysicEngine;
+import fr.snapgames.game.core.math.physic.World;
 import fr.snapgames.game.core.scene.SceneManager;
 import fr.snapgames.game.core.service.EntityManager;
+import fr.snapgames.game.core.service.EntityPool;
+import fr.snapgames.game.core.utils.FixedStep;
+import fr.snapgames.game.core.utils.FrameProfiler;
 import fr.snapgames.game.core.utils.I18n;
 
 import javax.swing.*;
@@ -19,8 +25,13 @@ import java.awt.*;
 import java.awt.event.KeyEvent;
 import java.awt.event.WindowEvent;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Random;
+import java.util.concurrent.Exchanger;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 /**
  * Main Game Java2D test.
@@ -32,12 +43,23 @@ public class Game extends JPanel {
 
     // Frames to be rendered
     private double FPS = 60.0;
-    private double fpsDelay = 1000000.0 / 60.0;
+    private double fpsDelay = 1000.0 / 60.0;
     private double scale = 2.0;
-    // some internal flags
-    private int debug = 0;
-    private boolean exit = false;
-    private boolean pause = false;
+    /**
+     * Loop mode: "variable" uses the measured frame time as physic step,
+     * "fixed" runs the physic at a constant rate with render interpolation,
+     * "pipelined" draws a frame on a render thread while the next one is updated.
+     */
+    private String loopMode = "variable";
+    // Physic steps per second in fixed loop mode.
+    private double stepRate = 60.0;
+    // Maximum number of catch-up physic steps per rendered frame.
+    private int maxStepsPerFrame = 5;
+    // some internal flags (debug and pause are written by the key handler and read by the
+    // render thread of the pipelined mode)
+    private volatile int debug = 0;
+    private volatile boolean exit = false;
+    private volatile boolean pause = false;
 
     private long realFPS = 0;
 
@@ -47,12 +69,26 @@ public class Game extends JPanel {
      */
     private boolean testMode;
 
+    /**
+     * the Headless mode runs the game without any window: the rendering is done into
+     * an offscreen buffer, or skipped, and the loop runs as fast as possible.
+     */
+    private boolean headless;
+    // Render to the offscreen buffer in headless mode.
+    private boolean headlessRender = true;
+    // Number of frames to run in headless mode before exiting (0 = no limit).
+    private long headlessFrames = 0;
+
     private Configuration config;
     private I18n i18n;
     private EntityManager entityMgr;
+    private transient BehaviorScheduler inputScheduler;
     private PhysicEngine pe;
     private Renderer renderer;
     private Input input;
+    private transient FrameProfiler profiler;
+    // the seeded random generator to be used by scenes to keep game sessions reproducible.
+    private Random random;
 
     private SceneManager sceneMgr;
     private JFrame frame;
@@ -72,17 +108,37 @@ public class Game extends JPanel {
         config = new Configuration(configFilePath);
         debug = config.getInteger("game.debug", 0);
         FPS = config.getDouble("game.screen.fps", 60.0);
-        fpsDelay = 1000000.0 / FPS;
+        fpsDelay = 1000.0 / FPS;
+        loopMode = config.getString("game.loop.mode", "variable");
+        stepRate = config.getDouble("game.loop.step.rate", 60.0);
+        maxStepsPerFrame = config.getInteger("game.loop.step.max", 5);
 
         double scale = config.getDouble("game.screen.scale", 2.0);
         int width = (int) (scale * config.getInteger("game.screen.width", 320));
         int height = (int) (scale * config.getInteger("game.screen.height", 200));
         String title = I18n.get("game.title");
 
+        headless = config.getBoolean("game.headless", false);
+        if (!headless && GraphicsEnvironment.isHeadless()) {
+            System.out.println("WARN : Game | No display available, switch to headless mode");
+            headless = true;
+        }
+        headlessRender = config.getBoolean("game.headless.render", true);
+        headlessFrames = config.getInteger("game.headless.frames", 0);
+
         input = new Input(this);
-        frame = createWindow(title, width, height);
+        initializeInput();
+        if (headless) {
+            Dimension dim = new Dimension(width, height);
+            this.setSize(dim);
+            this.setPreferredSize(dim);
+        } else {
+            frame = createWindow(title, width, height);
+        }
 
+        profiler = new FrameProfiler(config);
         entityMgr = new EntityManager(this);
+        inputScheduler = new BehaviorScheduler(entityMgr, entityMgr.getEntityList());
         pe = new PhysicEngine(this);
         renderer = new Renderer(this);
         sceneMgr = new SceneManager(this);
@@ -90,6 +146,28 @@ public class Game extends JPanel {
 
     }
 
+    /**
+     * Prepare the input recording or replay if required by the <code>game.input.record</code> or
+     * <code>game.input.replay</code> configuration keys, and the seeded random generator.
+     * Recording and replaying both require the fixed time step loop to reproduce the same physic steps.
+     */
+    private void initializeInput() {
+        long seed = config.getLong("game.random.seed", System.nanoTime());
+        String replayFile = config.getString("game.input.replay", "");
+        String recordFile = config.getString("game.input.record", "");
+        if (!replayFile.equals("") && input.startReplay(replayFile)) {
+            seed = input.getSeed();
+            stepRate = input.getStepRate();
+        } else if (!recordFile.equals("")) {
+            input.startRecording(recordFile, seed, stepRate);
+        }
+        if (input.getMode() != Input.Mode.LIVE && !"fixed".equals(loopMode)) {
+            System.out.printf("INFO : Game | Input %s requires the fixed loop mode%n", input.getMode());
+            loopMode = "fixed";
+        }
+        random = new Random(seed);
+    }
+
     private JFrame createWindow(String title, int width, int height) {
         JFrame frame = new JFrame(title);
         frame.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
@@ -137,7 +215,7 @@ public class Game extends JPanel {
         config.parseArguments(args);
         sceneMgr.getCurrent().initialize(this);
         sceneMgr.getCurrent().load(this);
-        create((Graphics2D) frame.getGraphics());
+        create(Optional.ofNullable(frame).isPresent() ? (Graphics2D) frame.getGraphics() : null);
     }
 
     private void create(Graphics2D g) {
@@ -151,64 +229,113 @@ public class Game extends JPanel {
         entityMgr.add(e);
     }
 
+    /**
+     * Remove a {@link GameEntity} from the game.
+     *
+     * @param e the entity to be removed.
+     */
+    public void remove(GameEntity e) {
+        if (e instanceof Influencer) {
+            getPhysicEngine().getWorld().remove((Influencer) e);
+        }
+        getPhysicEngine().remove(e);
+        entityMgr.remove(e);
+    }
+
+    /**
+     * Remove a {@link GameEntity} from the game and give it back to its pool.
+     *
+     * @param e    the entity to be removed.
+     * @param pool the pool the entity has been obtained from.
+     * @param <T>  the type of pooled entity.
+     */
+    public <T extends GameEntity> void despawn(T e, EntityPool<T> pool) {
+        remove(e);
+        pool.free(e);
+    }
+
     /**
      * update game entities according to input
      */
     private void input() {
-        for (Entity e : getEntities().values()) {
-            for (Behavior b : e.behaviors) {
-                b.input(this, e);
-            }
-        }
+        long start = profiler.start();
+        input.nextFrame();
+        inputScheduler.input(this);
         if (Optional.ofNullable(currentCamera).isPresent()) {
             for (Behavior b : currentCamera.behaviors) {
                 b.input(this, currentCamera);
             }
         }
+        entityMgr.flush();
+        profiler.record(FrameProfiler.Phase.INPUT, start);
     }
 
     /**
-     * Update entities.
+     * Update entities, then apply the entity changes requested during the update
+     * through the {@link EntityManager#getCommands()} buffer.
      *
      * @param elapsed elapsed time since previous call.
      */
     public void update(double elapsed) {
         pe.update(this, elapsed);
+        entityMgr.flush();
     }
 
     /**
      * Draw all things on screen.
      *
      * @param realFPS displayed Frame Per Seconds.
+     * @param alpha   interpolation factor between the previous and the current
+     *                physic state (1.0 means the current state).
      */
-    private void draw(long realFPS) {
-        renderer.draw(this, sceneMgr.getCurrent(), realFPS);
+    private void draw(long realFPS, double alpha) {
+        renderer.draw(this, sceneMgr.getCurrent(), realFPS, alpha);
     }
 
     /**
      * Request to close this Window frame.
      */
     public void close() {
-        dispatchEvent(new WindowEvent(frame, WindowEvent.WINDOW_CLOSING));
-        frame.dispose();
+        profiler.dump();
+        input.stop();
+        pe.dispose();
+        if (Optional.ofNullable(frame).isPresent()) {
+            dispatchEvent(new WindowEvent(frame, WindowEvent.WINDOW_CLOSING));
+            frame.dispose();
+        }
     }
 
     /**
-     * Main Game loop
+     * Main Game loop, delegating to the loop mode defined by the
+     * <code>game.loop.mode</code> configuration key.
      */
     public void loop() {
+        if (headless) {
+            loopHeadless();
+        } else if ("fixed".equals(loopMode)) {
+            loopFixedStep();
+        } else if ("pipelined".equals(loopMode)) {
+            loopPipelined();
+        } else {
+            loopVariableStep();
+        }
+    }
+
+    /**
+     * Variable time step loop: the physic is updated with the measured frame duration.
+     */
+    private void loopVariableStep() {
         // elapsed Game Time
-        double currentTime = System.currentTimeMillis();
-        double gameTime = currentTime - startTime;
-        double previousTime = currentTime;
+        long currentTime = System.nanoTime();
+        long previousTime = currentTime;
         double dt = 0;
         // FPS measure
         long frames = 0;
         double timeFrame = 0.0;
         while (!exit && !testMode) {
-            currentTime = System.currentTimeMillis();
+            currentTime = System.nanoTime();
             // delta-time in sec.
-            dt = (currentTime - previousTime) * 0.001;
+            dt = (currentTime - previousTime) * 0.000000001;
             input();
             if (!pause) {
                 update(dt);
@@ -222,18 +349,164 @@ public class Game extends JPanel {
                 timeFrame = 0;
             }
 
-            draw(realFPS);
-            waitUntilStepEnd(dt);
+            draw(realFPS, 1.0);
+            waitUntilStepEnd(currentTime);
 
             previousTime = currentTime;
         }
+    }
+
+    /**
+     * Fixed time step loop: the physic is updated at <code>game.loop.step.rate</code>
+     * steps per second, whatever the rendering frame rate is. When the loop is late,
+     * at most <code>game.loop.step.max</code> steps are processed before rendering, and
+     * the remaining delay is dropped. The rendering receives the fraction of step
+     * not yet simulated to interpolate entities between the 2 last physic states.
+     */
+    private void loopFixedStep() {
+        FixedStep fixedStep = new FixedStep(stepRate, maxStepsPerFrame);
+        long previousTime = System.nanoTime();
+        // FPS measure
+        long frames = 0;
+        long timeFrame = 0;
+        while (!exit && !testMode) {
+            long currentTime = System.nanoTime();
+            long frameTime = currentTime - previousTime;
+            previousTime = currentTime;
+
+            int steps = fixedStep.advance(frameTime);
+            for (int i = 0; i < steps; i++) {
+                input();
+                if (!pause && !exit) {
+                    update(fixedStep.getStepSeconds());
+                }
+            }
+
+            frames += 1;
+            timeFrame += frameTime;
+            if (timeFrame > 1_000_000_000L) {
+                realFPS = frames;
+                frames = 0;
+                timeFrame = 0;
+            }
+
+            draw(realFPS, pause ? 1.0 : fixedStep.getAlpha());
+            waitUntilStepEnd(currentTime);
+        }
+    }
 
+    /**
+     * Pipelined loop: the update thread (this one) processes input and physic for the frame N+1
+     * and captures it into a {@link RenderSnapshot}, while a dedicated render thread draws the
+     * snapshot of the frame N. Both threads swap their snapshot through an {@link Exchanger}
+     * as soon as each one is done with its own.
+     */
+    private void loopPipelined() {
+        Exchanger<RenderSnapshot> exchanger = new Exchanger<>();
+        Thread renderThread = new Thread(() -> {
+            RenderSnapshot drawn = new RenderSnapshot();
+            while (!exit) {
+                try {
+                    drawn = exchanger.exchange(drawn, 100, TimeUnit.MILLISECONDS);
+                    renderer.draw(this, drawn);
+                } catch (TimeoutException e) {
+                    // no new frame: check exit request and wait again.
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }, "render");
+        renderThread.setDaemon(true);
+        renderThread.start();
+
+        RenderSnapshot captured = new RenderSnapshot();
+        long currentTime = System.nanoTime();
+        long previousTime = currentTime;
+        double dt;
+        // FPS measure
+        long frames = 0;
+        double timeFrame = 0.0;
+        try {
+            while (!exit && !testMode) {
+                currentTime = System.nanoTime();
+                // delta-time in sec.
+                dt = (currentTime - previousTime) * 0.000000001;
+                input();
+                if (!pause) {
+                    update(dt);
+                }
+
+                frames += 1;
+                timeFrame += dt;
+                if (timeFrame > 1.0) {
+                    realFPS = frames;
+                    frames = 0;
+                    timeFrame = 0;
+                }
+
+                captured.capture(this);
+                captured = exchanger.exchange(captured);
+                waitUntilStepEnd(currentTime);
+
+                previousTime = currentTime;
+            }
+        } catch (InterruptedException e) {
+            System.err.println("ERR : Game | Pipelined loop interrupted:" + e.getMessage());
+            Thread.currentThread().interrupt();
+        } finally {
+            exit = true;
+            renderThread.interrupt();
+        }
+    }
+
+    /**
+     * Headless loop: frames are processed as fast as possible, each one with one physic
+     * step of 1/<code>game.loop.step.rate</code> seconds, up to <code>game.headless.frames</code>
+     * frames. The measured update throughput is displayed at exit.
+     */
+    private void loopHeadless() {
+        final double stepSeconds = 1.0 / stepRate;
+        long startLoop = System.nanoTime();
+        long frameCount = 0;
+        // FPS measure
+        long frames = 0;
+        long timeFrame = System.nanoTime();
+        while (!exit && !testMode && (headlessFrames == 0 || frameCount < headlessFrames)) {
+            input();
+            if (!pause && !exit) {
+                update(stepSeconds);
+            }
+            frames += 1;
+            frameCount += 1;
+            long currentTime = System.nanoTime();
+            if (currentTime - timeFrame > 1_000_000_000L) {
+                realFPS = frames;
+                frames = 0;
+                timeFrame = currentTime;
+            }
+            if (headlessRender) {
+                draw(realFPS, 1.0);
+            }
+        }
+        double duration = (System.nanoTime() - startLoop) * 0.000000001;
+        if (frameCount > 0) {
+            System.out.printf("INFO : Game | Headless loop: %d frames in %04.3f s (%04.2f frames/s)%n",
+                    frameCount, duration, duration > 0 ? frameCount / duration : 0.0);
+        }
     }
 
-    private void waitUntilStepEnd(double dt) {
-        if (dt < fpsDelay) {
+    /**
+     * Wait for the end of the current frame according to the required FPS.
+     *
+     * @param frameStartTime the frame start time in nanoseconds.
+     */
+    private void waitUntilStepEnd(long frameStartTime) {
+        double frameDuration = (System.nanoTime() - frameStartTime) * 0.000001;
+        if (frameDuration < fpsDelay) {
             try {
-                Thread.sleep((long) (fpsDelay - dt) / 1000);
+                long waitNanos = (long) ((fpsDelay - frameDuration) * 1000000.0);
+                Thread.sleep(waitNanos / 1000000, (int) (waitNanos % 1000000));
             } catch (InterruptedException e) {
                 System.err.println("unable to Wait some millis:" + e.getMessage());
             }
@@ -263,8 +536,8 @@ public class Game extends JPanel {
             debug = (debug + 1 < 6 ? debug + 1 : 0);
         }
         if (e.getKeyChar() == 'g') {
-            double gy = getPhysicEngine().getWorld().getGravity().y;
-            getPhysicEngine().getWorld().getGravity().y = -gy;
+            World world = getPhysicEngine().getWorld();
+            world.setGravity(new Vector2D(world.getGravity().x, -world.getGravity().y));
         }
     }
 
@@ -272,6 +545,14 @@ public class Game extends JPanel {
         return entityMgr.getEntities();
     }
 
+    public List<Entity> getEntityList() {
+        return entityMgr.getEntityList();
+    }
+
+    public EntityManager getEntityManager() {
+        return entityMgr;
+    }
+
     public void setCurrentCamera(CameraEntity cam) {
         this.currentCamera = cam;
     }
@@ -284,6 +565,16 @@ public class Game extends JPanel {
         return input;
     }
 
+    /**
+     * Retrieve the seeded random generator, to be used in place of {@link Math#random()}
+     * to get the same game session when replaying a recorded input.
+     *
+     * @return the Game random generator.
+     */
+    public Random getRandom() {
+        return random;
+    }
+
     public void requestExit(boolean e) {
         this.exit = e;
     }
@@ -292,6 +583,10 @@ public class Game extends JPanel {
         return frame;
     }
 
+    public boolean isHeadless() {
+        return headless;
+    }
+
     public Configuration getConfiguration() {
         return config;
     }
@@ -300,6 +595,10 @@ public class Game extends JPanel {
         return debug;
     }
 
+    public FrameProfiler getProfiler() {
+        return profiler;
+    }
+
     public PhysicEngine getPhysicEngine() {
         return this.pe;
     }
@@ -11,4 +11,28 @@ public interface Behavior<T> {
     void input(Game game, T entity);
 
     void draw(Game game, T entity, Graphics2D g);
+
+    /**
+     * Declare that {@link #update(Game, Object, double)} only writes its own entity and its own
+     * instance fields, and only reads the other entities: the {@link BehaviorScheduler} may then
+     * update the instances of this behavior class in parallel.
+     *
+     * @return true if the behavior can be updated in parallel, false by default.
+     */
+    default boolean isParallelSafe() {
+        return false;
+    }
+
+    /**
+     * Declare how far {@link #draw(Game, Object, Graphics2D)} may paint outside of the bounds of
+     * its entity: when the entity is culled by the Renderer, this draw is still done if the entity
+     * bounds extended by this distance intersect the camera view.
+     *
+     * @param game   the parent Game.
+     * @param entity the entity of this behavior.
+     * @return the draw extent in pixels, 0 by default (the draw is culled with its entity).
+     */
+    default double getDrawExtent(Game game, T entity) {
+        return 0.0;
+    }
 }
\ No newline at end of file
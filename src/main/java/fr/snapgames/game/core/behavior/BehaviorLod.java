@@ -0,0 +1,67 @@
+package fr.snapgames.game.core.behavior;
+
+/**
+ * Level of detail of a behavior class: the rate of its updates depends on the distance of the
+ * entity to the camera view (0 inside the view).
+ * <ul>
+ *     <li>near (distance up to <code>nearDistance</code>): updated every frame,</li>
+ *     <li>mid (distance up to <code>farDistance</code>): updated every <code>midDivisor</code> frames,</li>
+ *     <li>far: updated every <code>farDivisor</code> frames, or never if <code>farDivisor</code> is 0.</li>
+ * </ul>
+ * A skipped update is not lost: its elapsed time is accumulated and given to the next update.
+ * <p>
+ * It is defined in the configuration as <code>nearDistance,farDistance,midDivisor,farDivisor</code>,
+ * e.g. <code>game.behavior.lod.EnemyFollowerBehavior=200,800,4,0</code>.
+ *
+ * @author Frédéric Delorme
+ * @since 1.0.1
+ */
+public class BehaviorLod {
+    public final double nearDistance;
+    public final double farDistance;
+    public final int midDivisor;
+    public final int farDivisor;
+
+    public BehaviorLod(double nearDistance, double farDistance, int midDivisor, int farDivisor) {
+        this.nearDistance = nearDistance;
+        this.farDistance = farDistance;
+        this.midDivisor = Math.max(1, midDivisor);
+        this.farDivisor = Math.max(0, farDivisor);
+    }
+
+    /**
+     * Parse a level of detail definition.
+     *
+     * @param value the <code>nearDistance,farDistance,midDivisor,farDivisor</code> definition.
+     * @return the BehaviorLod, or null if the value is empty or malformed.
+     */
+    public static BehaviorLod parse(String value) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        String[] v = value.split(",");
+        try {
+            return new BehaviorLod(
+                    Double.parseDouble(v[0].trim()),
+                    Double.parseDouble(v[1].trim()),
+                    Integer.parseInt(v[2].trim()),
+                    Integer.parseInt(v[3].trim()));
+        } catch (NumberFormatException | ArrayIndexOutOfBoundsException e) {
+            System.err.printf("ERR : BehaviorLod | Unable to parse level of detail '%s': %s%n", value, e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Retrieve the update period of an entity at some distance of the camera view.
+     *
+     * @param distance the distance to the camera view.
+     * @return the number of frames between 2 updates, or 0 if the behavior must not be updated.
+     */
+    public int divisor(double distance) {
+        if (distance <= nearDistance) {
+            return 1;
+        }
+        return distance <= farDistance ? midDivisor : farDivisor;
+    }
+}
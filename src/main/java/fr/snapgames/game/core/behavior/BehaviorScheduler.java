@@ -0,0 +1,339 @@
+package fr.snapgames.game.core.behavior;
+
+import fr.snapgames.game.Game;
+import fr.snapgames.game.core.config.Configuration;
+import fr.snapgames.game.core.entity.CameraEntity;
+import fr.snapgames.game.core.entity.Entity;
+import fr.snapgames.game.core.entity.GameEntity;
+import fr.snapgames.game.core.math.Vector2D;
+import fr.snapgames.game.core.service.EntityManager;
+
+import java.awt.geom.Rectangle2D;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * The BehaviorScheduler runs the behaviors of a list of entities (and of their children)
+ * grouped by behavior class: all the instances of a class are called in one batch, so that
+ * the call site stays monomorphic and the behavior code stays hot, where an entity by entity
+ * walk calls a different implementation on each step.
+ * <p>
+ * The batches are rebuilt only when the entities, their behaviors or their children change
+ * (see {@link EntityManager#getVersion()} and {@link Entity#getStructureVersion()}): behaviors and
+ * children must be changed through the Entity methods, not directly on its lists. The batches are run
+ * in the order their class has been met on the entities; inside a batch, in the entities order.
+ * <p>
+ * A batch of behaviors declaring {@link Behavior#isParallelSafe()} is updated in parallel on
+ * the fork/join pool, if one is given and the batch is large enough.
+ * <p>
+ * With a level of detail (see {@link #setLod(Configuration)}), the update rate of a behavior
+ * class depends on the distance of the entity to the current camera view, as defined by its
+ * {@link BehaviorLod}; the elapsed time of the skipped frames is given to the next update.
+ * Entities sticking to the camera, and all the entities when there is no camera, are always
+ * updated at full rate. The {@link Behavior#input(Game, Object)} calls are not affected.
+ *
+ * @author Frédéric Delorme
+ * @since 1.0.1
+ */
+public class BehaviorScheduler {
+
+    /**
+     * All the (behavior, entity) pairs of a behavior class.
+     */
+    private static class Batch {
+        final boolean parallelSafe;
+        final BehaviorLod lod;
+        Behavior<Entity>[] behaviors = newBehaviors(16);
+        Entity[] entities = new Entity[16];
+        // elapsed time not yet given to each behavior (level of detail only).
+        double[] pending;
+        // pending time kept across a rebuild, by entity.
+        Map<Entity, Double> carried;
+        int count = 0;
+
+        Batch(boolean parallelSafe, BehaviorLod lod) {
+            this.parallelSafe = parallelSafe;
+            this.lod = lod;
+            if (lod != null) {
+                pending = new double[16];
+                carried = new IdentityHashMap<>();
+            }
+        }
+
+        void add(Behavior<Entity> b, Entity e) {
+            if (count == behaviors.length) {
+                behaviors = Arrays.copyOf(behaviors, count * 2);
+                entities = Arrays.copyOf(entities, count * 2);
+                if (lod != null) {
+                    pending = Arrays.copyOf(pending, count * 2);
+                }
+            }
+            if (lod != null) {
+                Double time = carried.remove(e);
+                pending[count] = time != null ? time : 0.0;
+            }
+            behaviors[count] = b;
+            entities[count++] = e;
+        }
+
+        void clear() {
+            if (lod != null) {
+                carried.clear();
+                for (int i = 0; i < count; i++) {
+                    if (pending[i] > 0.0) {
+                        carried.put(entities[i], pending[i]);
+                    }
+                }
+            }
+            Arrays.fill(behaviors, 0, count, null);
+            Arrays.fill(entities, 0, count, null);
+            count = 0;
+        }
+
+        @SuppressWarnings("unchecked")
+        private static Behavior<Entity>[] newBehaviors(int size) {
+            return (Behavior<Entity>[]) new Behavior<?>[size];
+        }
+    }
+
+    /**
+     * Fork/join task updating the range [from, to) of a batch.
+     */
+    private class UpdateTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        final transient Game game;
+        final transient Batch batch;
+        final int from;
+        final int to;
+        final int chunk;
+        final double dt;
+
+        UpdateTask(Game game, Batch batch, int from, int to, int chunk, double dt) {
+            this.game = game;
+            this.batch = batch;
+            this.from = from;
+            this.to = to;
+            this.chunk = chunk;
+            this.dt = dt;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= chunk) {
+                for (int i = from; i < to; i++) {
+                    update(game, batch, i, dt);
+                }
+            } else {
+                int mid = (from + to) >>> 1;
+                invokeAll(new UpdateTask(game, batch, from, mid, chunk, dt),
+                        new UpdateTask(game, batch, mid, to, chunk, dt));
+            }
+        }
+    }
+
+    private final EntityManager manager;
+    private final List<? extends Entity> entities;
+    private final Map<Class<?>, Batch> batchesByClass = new IdentityHashMap<>();
+    private final List<Batch> batches = new ArrayList<>();
+    private int managerVersion = -1;
+    private int structureVersion = -1;
+
+    private ForkJoinPool pool;
+    private int parallelThreshold = Integer.MAX_VALUE;
+
+    private Configuration lodConfig;
+    private BehaviorLod defaultLod;
+    private long frame = 0;
+    // current camera view, valid when hasView is true.
+    private final Rectangle2D view = new Rectangle2D.Double();
+    private boolean hasView = false;
+
+    /**
+     * Create a scheduler on a list of entities.
+     *
+     * @param manager  the EntityManager the entities belong to, to detect their changes.
+     * @param entities the root entities whose behaviors are scheduled (a live view).
+     */
+    public BehaviorScheduler(EntityManager manager, List<? extends Entity> entities) {
+        this.manager = manager;
+        this.entities = entities;
+    }
+
+    /**
+     * Define the pool used to update the parallel-safe behaviors.
+     *
+     * @param pool      the fork/join pool, or null to stay single-threaded.
+     * @param threshold the minimum batch size to be updated in parallel.
+     * @return this BehaviorScheduler.
+     */
+    public BehaviorScheduler setParallel(ForkJoinPool pool, int threshold) {
+        this.pool = pool;
+        this.parallelThreshold = threshold;
+        return this;
+    }
+
+    /**
+     * Activate the level of detail if <code>game.behavior.lod.enabled</code> is true. Each behavior class
+     * uses its <code>game.behavior.lod.[SimpleClassName]</code> definition, or the
+     * <code>game.behavior.lod.default</code> one; a class without any definition is always updated.
+     *
+     * @param config the Configuration to read the definitions from.
+     * @return this BehaviorScheduler.
+     */
+    public BehaviorScheduler setLod(Configuration config) {
+        if (config.getBoolean("game.behavior.lod.enabled", false)) {
+            lodConfig = config;
+            defaultLod = BehaviorLod.parse(config.getString("game.behavior.lod.default", ""));
+        } else {
+            lodConfig = null;
+            defaultLod = null;
+        }
+        // batches must be created again with their level of detail.
+        batchesByClass.clear();
+        managerVersion = -1;
+        return this;
+    }
+
+    /**
+     * Call the {@link Behavior#input(Game, Object)} of all the behaviors, batch by batch.
+     *
+     * @param g the parent Game.
+     */
+    public void input(Game g) {
+        prepare();
+        for (int n = 0; n < batches.size(); n++) {
+            Batch batch = batches.get(n);
+            for (int i = 0; i < batch.count; i++) {
+                batch.behaviors[i].input(g, batch.entities[i]);
+            }
+        }
+    }
+
+    /**
+     * Call the {@link Behavior#update(Game, Object, double)} of all the behaviors, batch by batch.
+     *
+     * @param g  the parent Game.
+     * @param dt the elapsed time since previous update (in seconds).
+     */
+    public void update(Game g, double dt) {
+        prepare();
+        frame++;
+        CameraEntity camera = lodConfig != null ? g.getCurrentCamera() : null;
+        hasView = camera != null && camera.viewport != null;
+        if (hasView) {
+            camera.getViewBounds(view);
+        }
+        for (int n = 0; n < batches.size(); n++) {
+            Batch batch = batches.get(n);
+            if (pool != null && batch.parallelSafe && batch.count >= parallelThreshold) {
+                int chunk = Math.max(64, batch.count / (pool.getParallelism() * 4) + 1);
+                pool.invoke(new UpdateTask(g, batch, 0, batch.count, chunk, dt));
+            } else {
+                for (int i = 0; i < batch.count; i++) {
+                    update(g, batch, i, dt);
+                }
+            }
+        }
+    }
+
+    private void update(Game g, Batch batch, int i, double dt) {
+        Entity e = batch.entities[i];
+        if (batch.lod == null || !hasView) {
+            if (batch.pending != null && batch.pending[i] > 0.0) {
+                dt += batch.pending[i];
+                batch.pending[i] = 0.0;
+            }
+            batch.behaviors[i].update(g, e, dt);
+            return;
+        }
+        int divisor = batch.lod.divisor(distanceToView(e));
+        if (divisor == 0) {
+            // out of reach: the time is not accumulated, the entity would jump when coming back.
+            batch.pending[i] = 0.0;
+            return;
+        }
+        double time = batch.pending[i] + dt;
+        if (divisor == 1 || (frame + e.id) % divisor == 0) {
+            batch.pending[i] = 0.0;
+            batch.behaviors[i].update(g, e, time);
+        } else {
+            batch.pending[i] = time;
+        }
+    }
+
+    /**
+     * Distance from the entity center to the current camera view (0 inside the view).
+     */
+    private double distanceToView(Entity e) {
+        if (!(e instanceof GameEntity ge) || ge.stickToCamera) {
+            return 0.0;
+        }
+        // a child is measured from its world position.
+        Vector2D p = ge.parent instanceof GameEntity ? ge.worldPosition : ge.position;
+        double x = p.x + ge.size.x * 0.5;
+        double y = p.y + ge.size.y * 0.5;
+        double dx = Math.max(Math.max(view.getMinX() - x, x - view.getMaxX()), 0.0);
+        double dy = Math.max(Math.max(view.getMinY() - y, y - view.getMaxY()), 0.0);
+        return Math.sqrt(dx * dx + dy * dy);
+    }
+
+    /**
+     * @return the number of behavior classes scheduled.
+     */
+    public int getBatchCount() {
+        prepare();
+        return batches.size();
+    }
+
+    private void prepare() {
+        if (managerVersion == manager.getVersion() && structureVersion == Entity.getStructureVersion()) {
+            return;
+        }
+        managerVersion = manager.getVersion();
+        structureVersion = Entity.getStructureVersion();
+        for (int n = 0; n < batches.size(); n++) {
+            batches.get(n).clear();
+        }
+        batches.clear();
+        for (int i = 0; i < entities.size(); i++) {
+            collect(entities.get(i));
+        }
+        // drop the classes not used anymore.
+        batchesByClass.values().removeIf(b -> b.count == 0);
+    }
+
+    @SuppressWarnings("unchecked")
+    private void collect(Entity e) {
+        for (int j = 0; j < e.behaviors.size(); j++) {
+            // the behaviors attached to an Entity are all typed against Entity.
+            Behavior<Entity> b = (Behavior<Entity>) e.behaviors.get(j);
+            Batch batch = batchesByClass.get(b.getClass());
+            if (batch == null) {
+                batch = new Batch(b.isParallelSafe(), lodOf(b.getClass()));
+                batchesByClass.put(b.getClass(), batch);
+            }
+            if (batch.count == 0) {
+                // first met during this rebuild.
+                batches.add(batch);
+            }
+            batch.add(b, e);
+        }
+        for (int c = 0; c < e.child.size(); c++) {
+            collect(e.child.get(c));
+        }
+    }
+
+    private BehaviorLod lodOf(Class<?> type) {
+        if (lodConfig == null) {
+            return null;
+        }
+        BehaviorLod lod = BehaviorLod.parse(lodConfig.getString("game.behavior.lod." + type.getSimpleName(), ""));
+        return lod != null ? lod : defaultLod;
+    }
+}
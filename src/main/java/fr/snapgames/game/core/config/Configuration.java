@@ -13,6 +13,7 @@ import fr.snapgames.game.core.math.physic.Material;
  * let user gather converted value to
  * <ul>
  * <li>Integer,</li>
+ * <li>Long,</li>
  * <li>Double,</li>
  * <li>Boolean,</li>
  * <li>.</li>
@@ -40,6 +41,13 @@ public class Configuration {
         return defaultValue;
     }
 
+    public long getLong(String key, long defaultValue) {
+        if (parameters.containsKey(key)) {
+            return Long.parseLong(parameters.getProperty(key));
+        }
+        return defaultValue;
+    }
+
     public double getDouble(String key, double defaultValue) {
         if (parameters.containsKey(key)) {
             return Double.parseDouble(parameters.getProperty(key));
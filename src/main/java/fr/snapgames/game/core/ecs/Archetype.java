@@ -0,0 +1,133 @@
+package fr.snapgames.game.core.ecs;
+
+import java.lang.reflect.Array;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * An Archetype stores all the entities having exactly the same set of component types:
+ * each component type is a column, a typed array where the component of the entity at
+ * row <code>i</code> is at index <code>i</code>, so that a system iterating an archetype
+ * walks contiguous arrays of the only components it needs.
+ * <p>
+ * Rows are kept packed: removing an entity moves the last row into the freed one.
+ *
+ * @author Frédéric Delorme
+ * @since 1.0.1
+ */
+public class Archetype {
+
+    private final Class<?>[] types;
+    private final Object[] columns;
+    private int[] ids;
+    private int size = 0;
+
+    // cached transitions to the archetypes with one more or one less component type.
+    final Map<Class<?>, Archetype> addEdges = new HashMap<>();
+    final Map<Class<?>, Archetype> removeEdges = new HashMap<>();
+
+    Archetype(Class<?>[] types) {
+        this.types = types;
+        this.columns = new Object[types.length];
+        this.ids = new int[8];
+        for (int c = 0; c < types.length; c++) {
+            columns[c] = Array.newInstance(types[c], ids.length);
+        }
+    }
+
+    /**
+     * Retrieve the column of a component type.
+     *
+     * @param type the component type.
+     * @param <T>  the component type.
+     * @return the typed array of components, valid for the rows [0, size), or null if the
+     * archetype does not have this component type.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T[] column(Class<T> type) {
+        int c = indexOf(type);
+        return c < 0 ? null : (T[]) columns[c];
+    }
+
+    /**
+     * Retrieve the entity ids of the rows.
+     *
+     * @return the ids array, valid for the rows [0, size).
+     */
+    public int[] getIds() {
+        return ids;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public Class<?>[] getTypes() {
+        return types;
+    }
+
+    public boolean has(Class<?> type) {
+        return indexOf(type) >= 0;
+    }
+
+    int indexOf(Class<?> type) {
+        for (int c = 0; c < types.length; c++) {
+            if (types[c] == type) {
+                return c;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Append a row for an entity, with null components.
+     *
+     * @param id the entity id.
+     * @return the new row index.
+     */
+    int addRow(int id) {
+        if (size == ids.length) {
+            int capacity = ids.length * 2;
+            ids = Arrays.copyOf(ids, capacity);
+            for (int c = 0; c < columns.length; c++) {
+                columns[c] = Arrays.copyOf((Object[]) columns[c], capacity);
+            }
+        }
+        ids[size] = id;
+        return size++;
+    }
+
+    /**
+     * Remove a row, moving the last row into it.
+     *
+     * @param row the row to be removed.
+     * @return the id of the entity moved into the row, or -1 if no entity has been moved.
+     */
+    int removeRow(int row) {
+        int last = --size;
+        int moved = -1;
+        for (int c = 0; c < columns.length; c++) {
+            Object[] column = (Object[]) columns[c];
+            column[row] = column[last];
+            column[last] = null;
+        }
+        if (row != last) {
+            ids[row] = ids[last];
+            moved = ids[row];
+        }
+        return moved;
+    }
+
+    Object get(int c, int row) {
+        return ((Object[]) columns[c])[row];
+    }
+
+    void set(int c, int row, Object component) {
+        ((Object[]) columns[c])[row] = component;
+    }
+
+    public String toString() {
+        return String.format("archetype%s[%d]", Arrays.stream(types).map(Class::getSimpleName).toList(), size);
+    }
+}
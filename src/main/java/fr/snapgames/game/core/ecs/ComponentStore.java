@@ -0,0 +1,215 @@
+package fr.snapgames.game.core.ecs;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The ComponentStore keeps the components of the entities grouped by {@link Archetype}:
+ * all entities sharing the same set of component types are stored together, one typed
+ * column per component type.
+ * <p>
+ * Adding or removing a component type moves the entity to the archetype of its new type
+ * set; the transitions are cached on the archetypes, so that the type set lookup is only
+ * done the first time. Systems iterate the matching archetypes through a {@link Query}.
+ * <p>
+ * Entities are identified by their {@link fr.snapgames.game.core.entity.Entity#id}.
+ *
+ * @author Frédéric Delorme
+ * @since 1.0.1
+ */
+public class ComponentStore {
+
+    private static final Comparator<Class<?>> TYPE_ORDER = Comparator.comparing(Class::getName);
+
+    private final Map<List<Class<?>>, Archetype> archetypes = new HashMap<>();
+    private final List<Archetype> archetypeList = new ArrayList<>();
+    private final Map<List<Class<?>>, Query> queries = new HashMap<>();
+    private final Archetype empty;
+
+    // archetype and row of each entity, indexed by entity id.
+    private Archetype[] entityArchetype = new Archetype[64];
+    private int[] entityRow = new int[64];
+
+    public ComponentStore() {
+        empty = getArchetype(new Class<?>[0]);
+    }
+
+    /**
+     * Add a component to an entity, or replace the existing component of the same type.
+     *
+     * @param id        the entity id.
+     * @param component the component to be added.
+     * @return this ComponentStore.
+     */
+    public ComponentStore add(int id, Object component) {
+        Class<?> type = component.getClass();
+        Archetype from = archetypeOf(id);
+        if (from == null) {
+            ensureCapacity(id);
+            from = empty;
+            entityArchetype[id] = empty;
+            entityRow[id] = empty.addRow(id);
+        }
+        int c = from.indexOf(type);
+        if (c >= 0) {
+            from.set(c, entityRow[id], component);
+            return this;
+        }
+        Archetype to = from.addEdges.get(type);
+        if (to == null) {
+            Class<?>[] types = Arrays.copyOf(from.getTypes(), from.getTypes().length + 1);
+            types[types.length - 1] = type;
+            to = getArchetype(types);
+            from.addEdges.put(type, to);
+            to.removeEdges.put(type, from);
+        }
+        int row = move(id, from, to);
+        to.set(to.indexOf(type), row, component);
+        return this;
+    }
+
+    /**
+     * Remove the component of a type from an entity.
+     *
+     * @param id   the entity id.
+     * @param type the component type to be removed.
+     * @return this ComponentStore.
+     */
+    public ComponentStore remove(int id, Class<?> type) {
+        Archetype from = archetypeOf(id);
+        if (from == null || !from.has(type)) {
+            return this;
+        }
+        Archetype to = from.removeEdges.get(type);
+        if (to == null) {
+            Class<?>[] types = new Class<?>[from.getTypes().length - 1];
+            int n = 0;
+            for (Class<?> t : from.getTypes()) {
+                if (t != type) {
+                    types[n++] = t;
+                }
+            }
+            to = getArchetype(types);
+            from.removeEdges.put(type, to);
+            to.addEdges.put(type, from);
+        }
+        move(id, from, to);
+        return this;
+    }
+
+    /**
+     * Retrieve the component of a type for an entity.
+     *
+     * @param id   the entity id.
+     * @param type the component type.
+     * @param <T>  the component type.
+     * @return the component, or null if the entity does not have this component type.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T get(int id, Class<T> type) {
+        Archetype a = archetypeOf(id);
+        if (a == null) {
+            return null;
+        }
+        int c = a.indexOf(type);
+        return c < 0 ? null : (T) a.get(c, entityRow[id]);
+    }
+
+    public boolean has(int id, Class<?> type) {
+        Archetype a = archetypeOf(id);
+        return a != null && a.has(type);
+    }
+
+    /**
+     * Remove all the components of an entity.
+     *
+     * @param id the entity id.
+     */
+    public void destroy(int id) {
+        Archetype a = archetypeOf(id);
+        if (a != null) {
+            int moved = a.removeRow(entityRow[id]);
+            if (moved >= 0) {
+                entityRow[moved] = entityRow[id];
+            }
+            entityArchetype[id] = null;
+        }
+    }
+
+    /**
+     * Retrieve the live query on the entities having all the component types.
+     *
+     * @param types the required component types.
+     * @return the Query, shared by all callers requesting the same types.
+     */
+    public Query query(Class<?>... types) {
+        Class<?>[] sorted = types.clone();
+        Arrays.sort(sorted, TYPE_ORDER);
+        return queries.computeIfAbsent(List.of(sorted), k -> {
+            Query q = new Query(sorted);
+            for (int i = 0; i < archetypeList.size(); i++) {
+                q.offer(archetypeList.get(i));
+            }
+            return q;
+        });
+    }
+
+    public int getArchetypeCount() {
+        return archetypeList.size();
+    }
+
+    private Archetype archetypeOf(int id) {
+        return id < entityArchetype.length ? entityArchetype[id] : null;
+    }
+
+    private void ensureCapacity(int id) {
+        if (id >= entityArchetype.length) {
+            int capacity = Math.max(id + 1, entityArchetype.length * 2);
+            entityArchetype = Arrays.copyOf(entityArchetype, capacity);
+            entityRow = Arrays.copyOf(entityRow, capacity);
+        }
+    }
+
+    private Archetype getArchetype(Class<?>[] types) {
+        Arrays.sort(types, TYPE_ORDER);
+        List<Class<?>> key = List.of(types);
+        Archetype a = archetypes.get(key);
+        if (a == null) {
+            a = new Archetype(types);
+            archetypes.put(key, a);
+            archetypeList.add(a);
+            for (Query q : queries.values()) {
+                q.offer(a);
+            }
+        }
+        return a;
+    }
+
+    /**
+     * Move an entity from an archetype to another one, copying the shared components.
+     *
+     * @return the row of the entity in the target archetype.
+     */
+    private int move(int id, Archetype from, Archetype to) {
+        int fromRow = entityRow[id];
+        int row = to.addRow(id);
+        Class<?>[] types = to.getTypes();
+        for (int c = 0; c < types.length; c++) {
+            int fc = from.indexOf(types[c]);
+            if (fc >= 0) {
+                to.set(c, row, from.get(fc, fromRow));
+            }
+        }
+        int moved = from.removeRow(fromRow);
+        if (moved >= 0) {
+            entityRow[moved] = fromRow;
+        }
+        entityArchetype[id] = to;
+        entityRow[id] = row;
+        return row;
+    }
+}
@@ -0,0 +1,75 @@
+package fr.snapgames.game.core.ecs;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A live query on the {@link ComponentStore}: the list of the archetypes having all the
+ * requested component types, kept up to date when new archetypes are created.
+ * <p>
+ * A system iterates the matching archetypes, and for each of them, the columns it needs:
+ * <pre>
+ * for (Archetype a : query.getArchetypes()) {
+ *     Position[] p = a.column(Position.class);
+ *     Velocity[] v = a.column(Velocity.class);
+ *     for (int i = 0; i &lt; a.size(); i++) {
+ *         p[i].x += v[i].x * dt;
+ *     }
+ * }
+ * </pre>
+ *
+ * @author Frédéric Delorme
+ * @since 1.0.1
+ */
+public class Query {
+
+    private final Class<?>[] types;
+    private final List<Archetype> archetypes = new ArrayList<>();
+    private final List<Archetype> readOnlyArchetypes = Collections.unmodifiableList(archetypes);
+
+    Query(Class<?>[] types) {
+        this.types = types;
+    }
+
+    boolean matches(Archetype a) {
+        for (Class<?> t : types) {
+            if (!a.has(t)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    void offer(Archetype a) {
+        if (matches(a)) {
+            archetypes.add(a);
+        }
+    }
+
+    /**
+     * Retrieve the archetypes matching the query.
+     *
+     * @return the live list of matching archetypes.
+     */
+    public List<Archetype> getArchetypes() {
+        return readOnlyArchetypes;
+    }
+
+    /**
+     * Count the entities matching the query.
+     *
+     * @return the number of entities.
+     */
+    public int count() {
+        int count = 0;
+        for (int i = 0; i < archetypes.size(); i++) {
+            count += archetypes.get(i).size();
+        }
+        return count;
+    }
+
+    public Class<?>[] getTypes() {
+        return types;
+    }
+}
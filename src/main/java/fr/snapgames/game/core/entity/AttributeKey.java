@@ -0,0 +1,91 @@
+package fr.snapgames.game.core.entity;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A typed key to an {@link Entity} attribute, resolved once to a slot index in the entity
+ * primitive arrays: <code>Double</code> and <code>Integer</code> attributes are stored unboxed,
+ * any other type in an object array. Reading an attribute through its key costs an array
+ * access, where the <code>String</code> API costs a hash lookup and an unboxing.
+ * <p>
+ * Keys are registered by name, only through the typed factories: the same name always gives
+ * the same key, and the {@link Entity#getAttribute(String, Object)}/{@link Entity#setAttribute(String, Object)}
+ * methods go through the slot of a registered name, so that both APIs see the same values.
+ *
+ * <pre>
+ * public static final AttributeKey&lt;Double&gt; MAX_SPEED = AttributeKey.ofDouble("maxSpeed");
+ * ...
+ * double maxSpeed = e.getDouble(MAX_SPEED, 0.0);
+ * </pre>
+ *
+ * @param <T> the attribute value type.
+ * @author Frédéric Delorme
+ * @since 1.0.1
+ */
+public final class AttributeKey<T> {
+
+    enum Kind {
+        DOUBLE, INT, OBJECT
+    }
+
+    private static final Map<String, AttributeKey<?>> keys = new ConcurrentHashMap<>();
+    private static final int[] slotCounts = new int[Kind.values().length];
+
+    public final String name;
+    public final Class<T> type;
+    final Kind kind;
+    final int slot;
+
+    private AttributeKey(String name, Class<T> type, Kind kind, int slot) {
+        this.name = name;
+        this.type = type;
+        this.kind = kind;
+        this.slot = slot;
+    }
+
+    public static AttributeKey<Double> ofDouble(String name) {
+        return of(name, Double.class);
+    }
+
+    public static AttributeKey<Integer> ofInt(String name) {
+        return of(name, Integer.class);
+    }
+
+    /**
+     * Retrieve the key of an attribute, registering it on first call.
+     *
+     * @param name the attribute name.
+     * @param type the attribute value type.
+     * @param <T>  the attribute value type.
+     * @return the AttributeKey.
+     * @throws IllegalArgumentException if the name is already registered with another type.
+     */
+    @SuppressWarnings("unchecked")
+    public static synchronized <T> AttributeKey<T> of(String name, Class<T> type) {
+        AttributeKey<?> key = keys.get(name);
+        if (key == null) {
+            Kind kind = type == Double.class ? Kind.DOUBLE : type == Integer.class ? Kind.INT : Kind.OBJECT;
+            key = new AttributeKey<>(name, type, kind, slotCounts[kind.ordinal()]++);
+            keys.put(name, key);
+        } else if (key.type != type) {
+            throw new IllegalArgumentException(String.format(
+                    "attribute '%s' is already registered as %s", name, key.type.getSimpleName()));
+        }
+        return (AttributeKey<T>) key;
+    }
+
+    /**
+     * Retrieve the key registered for a name.
+     *
+     * @param name the attribute name.
+     * @return the AttributeKey, or null if no key has been registered for this name.
+     */
+    static AttributeKey<?> find(String name) {
+        return keys.get(name);
+    }
+
+    public String toString() {
+        return name + ":" + type.getSimpleName();
+    }
+}
@@ -3,6 +3,7 @@ package fr.snapgames.game.core.entity;
 import fr.snapgames.game.core.math.Vector2D;
 
 import java.awt.Dimension;
+import java.awt.geom.Rectangle2D;
 
 /**
  * Camera used to see/follow entity in game viewport.
@@ -42,4 +43,22 @@ public class CameraEntity extends GameEntity {
         this.tween = tween;
         return this;
     }
+
+    /**
+     * Compute the world area seen by this camera: the axis-aligned bounding box of the viewport
+     * rectangle rotated around its center.
+     *
+     * @param out the rectangle to be set with the view bounds.
+     * @return the out rectangle.
+     */
+    public Rectangle2D getViewBounds(Rectangle2D out) {
+        double hw = viewport.width * 0.5;
+        double hh = viewport.height * 0.5;
+        double cos = Math.abs(Math.cos(rotation));
+        double sin = Math.abs(Math.sin(rotation));
+        double ew = hw * cos + hh * sin;
+        double eh = hw * sin + hh * cos;
+        out.setRect(position.x + hw - ew, position.y + hh - eh, ew * 2.0, eh * 2.0);
+        return out;
+    }
 }
\ No newline at end of file
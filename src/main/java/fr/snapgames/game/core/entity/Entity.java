@@ -3,40 +3,291 @@ package fr.snapgames.game.core.entity;
 import fr.snapgames.game.core.behavior.Behavior;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class Entity {
     private static int index = 0;
+    // incremented on each change of the behaviors or children of any entity, possibly from several threads.
+    private static final AtomicInteger structureVersion = new AtomicInteger();
     public int id = index++;
     public String name = "entity_" + id;
+    /**
+     * Incremented each time the entity is released to an {@link fr.snapgames.game.core.service.EntityPool}:
+     * a {@link #handle()} taken before the release does not match the recycled entity anymore.
+     */
+    public int generation = 0;
 
+    /**
+     * Attributes not stored in a typed slot: values put directly in this map, or set by a name
+     * not registered by any {@link AttributeKey}.
+     */
     public Map<String, Object> attributes = new HashMap<>();
+    // typed attribute slots, indexed by AttributeKey.slot.
+    private double[] doubles = new double[0];
+    private boolean[] doubleSet = new boolean[0];
+    private int[] ints = new int[0];
+    private boolean[] intSet = new boolean[0];
+    private Object[] objects = new Object[0];
     public List<Behavior> behaviors = new ArrayList<>();
+    /**
+     * Tags of the entity, to be queried with {@link fr.snapgames.game.core.service.EntityManager#queryTag(String)}.
+     */
+    public Set<String> tags = new HashSet<>();
 
     public List<Entity> child = new ArrayList<>();
+    /**
+     * The parent entity in the hierarchy, null for a root entity.
+     */
+    public Entity parent;
 
     public Entity(String name) {
         this.name = name;
     }
 
+    /**
+     * Create a new Entity with initial values for some of its double attributes.
+     *
+     * @param name   Name of the new entity.
+     * @param keys   the double attributes to be initialized.
+     * @param values their initial values, in the keys order.
+     */
+    protected Entity(String name, List<AttributeKey<Double>> keys, double[] values) {
+        this(name);
+        for (int i = 0; i < keys.size(); i++) {
+            setDouble(keys.get(i), values[i]);
+        }
+    }
+
     public Entity addBehavior(Behavior b) {
         this.behaviors.add(b);
+        structureVersion.incrementAndGet();
+        return this;
+    }
+
+    public Entity removeBehavior(Behavior<?> b) {
+        if (this.behaviors.remove(b)) {
+            structureVersion.incrementAndGet();
+        }
+        return this;
+    }
+
+    /**
+     * Retrieve the version of the entities structure, incremented each time a behavior or a child
+     * is added to or removed from an entity, to let the caches built on it detect a change.
+     *
+     * @return the structure version.
+     */
+    public static int getStructureVersion() {
+        return structureVersion.get();
+    }
+
+    public Entity addTag(String tag) {
+        tags.add(tag);
         return this;
     }
 
+    public boolean hasTag(String tag) {
+        return tags.contains(tag);
+    }
+
+    /**
+     * Retrieve an attribute by its name. This is the slow path, boxing the typed values:
+     * prefer {@link #getDouble(AttributeKey, double)}, {@link #getInt(AttributeKey, int)} or
+     * {@link #getAttribute(AttributeKey, Object)} in per-frame code.
+     *
+     * @param attrName     the attribute name.
+     * @param defaultValue the value returned if the attribute is not set.
+     * @return the attribute value.
+     */
     public Object getAttribute(String attrName, Object defaultValue) {
+        AttributeKey<?> key = AttributeKey.find(attrName);
+        if (key != null && hasAttribute(key)) {
+            return getAttribute(key, null);
+        }
         return attributes.getOrDefault(attrName, defaultValue);
     }
 
+    /**
+     * Set an attribute by its name. A name registered by an {@link AttributeKey} is stored in
+     * its typed slot, the numbers being widened to the key type (e.g. an <code>Integer</code> for
+     * a <code>Double</code> key); any other name is kept in the {@link #attributes} map.
+     *
+     * @param key   the attribute name.
+     * @param value the attribute value, null to remove it.
+     * @return this Entity.
+     * @throws IllegalArgumentException if the value can not be stored with the type registered for the name.
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
     public Entity setAttribute(String key, Object value) {
-        attributes.put(key, value);
+        AttributeKey attrKey = AttributeKey.find(key);
+        if (attrKey == null) {
+            attributes.put(key, value);
+            return this;
+        }
+        attributes.remove(key);
+        if (value == null) {
+            clearAttribute(attrKey);
+        } else if (attrKey.type.isInstance(value)) {
+            setAttribute(attrKey, value);
+        } else if (attrKey.kind == AttributeKey.Kind.DOUBLE && value instanceof Number n) {
+            setDouble(attrKey, n.doubleValue());
+        } else if (attrKey.kind == AttributeKey.Kind.INT && (value instanceof Short || value instanceof Byte)) {
+            setInt(attrKey, ((Number) value).intValue());
+        } else {
+            throw new IllegalArgumentException(String.format(
+                    "attribute '%s' is registered as %s, not %s",
+                    key, attrKey.type.getSimpleName(), value.getClass().getSimpleName()));
+        }
+        return this;
+    }
+
+    public final double getDouble(AttributeKey<Double> key, double defaultValue) {
+        int s = key.slot;
+        return s < doubleSet.length && doubleSet[s] ? doubles[s] : defaultValue;
+    }
+
+    public final Entity setDouble(AttributeKey<Double> key, double value) {
+        int s = key.slot;
+        if (s >= doubles.length) {
+            doubles = Arrays.copyOf(doubles, s + 1);
+            doubleSet = Arrays.copyOf(doubleSet, s + 1);
+        }
+        doubles[s] = value;
+        doubleSet[s] = true;
+        return this;
+    }
+
+    public final int getInt(AttributeKey<Integer> key, int defaultValue) {
+        int s = key.slot;
+        return s < intSet.length && intSet[s] ? ints[s] : defaultValue;
+    }
+
+    public final Entity setInt(AttributeKey<Integer> key, int value) {
+        int s = key.slot;
+        if (s >= ints.length) {
+            ints = Arrays.copyOf(ints, s + 1);
+            intSet = Arrays.copyOf(intSet, s + 1);
+        }
+        ints[s] = value;
+        intSet[s] = true;
+        return this;
+    }
+
+    /**
+     * Retrieve a typed attribute. <code>Double</code> and <code>Integer</code> values are boxed:
+     * use {@link #getDouble(AttributeKey, double)} and {@link #getInt(AttributeKey, int)} instead.
+     *
+     * @param key          the attribute key.
+     * @param defaultValue the value returned if the attribute is not set.
+     * @param <T>          the attribute value type.
+     * @return the attribute value.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T getAttribute(AttributeKey<T> key, T defaultValue) {
+        if (!hasAttribute(key)) {
+            return defaultValue;
+        }
+        return switch (key.kind) {
+            case DOUBLE -> (T) Double.valueOf(doubles[key.slot]);
+            case INT -> (T) Integer.valueOf(ints[key.slot]);
+            case OBJECT -> (T) objects[key.slot];
+        };
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> Entity setAttribute(AttributeKey<T> key, T value) {
+        switch (key.kind) {
+            case DOUBLE -> setDouble((AttributeKey<Double>) key, (Double) value);
+            case INT -> setInt((AttributeKey<Integer>) key, (Integer) value);
+            case OBJECT -> {
+                if (key.slot >= objects.length) {
+                    objects = Arrays.copyOf(objects, key.slot + 1);
+                }
+                objects[key.slot] = value;
+            }
+        }
         return this;
     }
 
+    public boolean hasAttribute(AttributeKey<?> key) {
+        int s = key.slot;
+        return switch (key.kind) {
+            case DOUBLE -> s < doubleSet.length && doubleSet[s];
+            case INT -> s < intSet.length && intSet[s];
+            case OBJECT -> s < objects.length && objects[s] != null;
+        };
+    }
+
+    private void clearAttribute(AttributeKey<?> key) {
+        if (hasAttribute(key)) {
+            switch (key.kind) {
+                case DOUBLE -> doubleSet[key.slot] = false;
+                case INT -> intSet[key.slot] = false;
+                case OBJECT -> objects[key.slot] = null;
+            }
+        }
+    }
+
+    /**
+     * Retrieve a handle on this incarnation of the entity, to be kept in place of the reference
+     * when the entity may be recycled.
+     *
+     * @return the handle, made of the generation and the id of the entity.
+     */
+    public long handle() {
+        return ((long) generation << 32) | (id & 0xffffffffL);
+    }
+
+    /**
+     * Check that a handle is still on this incarnation of the entity.
+     *
+     * @param handle a handle retrieved by {@link #handle()}.
+     * @return false if the entity has been recycled since the handle has been taken.
+     */
+    public boolean isHandleOf(long handle) {
+        return handle == handle();
+    }
+
+    /**
+     * Reset the entity to the state of a new instance, keeping its id and generation,
+     * before its recycling by an {@link fr.snapgames.game.core.service.EntityPool}.
+     */
+    public void reset() {
+        attributes.clear();
+        Arrays.fill(doubleSet, false);
+        Arrays.fill(intSet, false);
+        Arrays.fill(objects, null);
+        behaviors.clear();
+        tags.clear();
+        structureVersion.incrementAndGet();
+        for (int i = 0; i < child.size(); i++) {
+            child.get(i).parent = null;
+        }
+        child.clear();
+        if (parent != null) {
+            parent.child.remove(this);
+            parent = null;
+        }
+    }
+
     public Entity addChild(Entity c) {
         child.add(c);
+        c.parent = this;
+        structureVersion.incrementAndGet();
+        return this;
+    }
+
+    public Entity removeChild(Entity c) {
+        if (child.remove(c)) {
+            c.parent = null;
+            structureVersion.incrementAndGet();
+        }
         return this;
     }
 }
@@ -14,11 +14,28 @@ import java.awt.image.BufferedImage;
 
 /**
  * Entity manipulated by Game.
+ * <p>
+ * GameEntities can be organized as a hierarchy with {@link #addChild(Entity)}: the
+ * <code>position</code> and <code>rotation</code> of a child are local to the frame of its
+ * parent, and its world transform is cached into <code>worldPosition</code> and
+ * <code>worldRotation</code>. A local change must be signaled with {@link #invalidateTransform()}
+ * (the setters do it), so that {@link #updateTransform()} only recomputes the changed subtrees.
  *
  * @author Frédéric Delorme
  */
 public class GameEntity extends Entity {
+    public static final AttributeKey<Double> MAX_SPEED = AttributeKey.ofDouble("maxSpeed");
+    public static final AttributeKey<Double> MAX_ACCELERATION = AttributeKey.ofDouble("maxAcceleration");
+    public static final AttributeKey<Double> MASS = AttributeKey.ofDouble("mass");
+    // initial values of the physic attributes, set on creation and reset.
+    private static final List<AttributeKey<Double>> DEFAULT_KEYS = List.of(MAX_SPEED, MAX_ACCELERATION, MASS);
+    private static final double[] DEFAULT_VALUES = {500.0, 300.0, 1.0};
+
     public Vector2D position = new Vector2D(0, 0);
+    /**
+     * Position at the start of the last physic step, used to interpolate rendering.
+     */
+    public Vector2D previousPosition = new Vector2D(0, 0);
     public Vector2D speed = new Vector2D(0, 0);
     public Vector2D acceleration = new Vector2D(0, 0);
     public Vector2D size = new Vector2D(16, 16);
@@ -29,26 +46,93 @@ public class GameEntity extends Entity {
 
     public double rotation = 0.0;
     public List<Vector2D> forces = new ArrayList<>();
+    /**
+     * Sum of the forces applied to the entity for the next physic step, cleared after each step.
+     */
+    public Vector2D force = new Vector2D(0, 0);
+    /**
+     * True when the entity is at rest: it is skipped by the physic integration until woken up.
+     */
+    public boolean sleeping = false;
+    /**
+     * Number of consecutive physic steps with a speed below the sleep threshold.
+     */
+    public int restFrames = 0;
+    /**
+     * Version of the World influencers when the entity fell asleep.
+     */
+    public int sleepVersion = 0;
     public Color color = Color.RED;
     public BufferedImage image;
     public double mass;
 
     public Shape box;
 
+    /**
+     * World transform of the entity frame, computed from the parent chain by {@link #updateTransform()}.
+     * For a root entity, it is the same as the position and rotation.
+     */
+    public Vector2D worldPosition = new Vector2D(0, 0);
+    public double worldRotation = 0.0;
+    /**
+     * World bounds of this entity and all its children, to reject a whole subtree at once.
+     */
+    public Rectangle2D.Double subtreeBounds = new Rectangle2D.Double();
+    private boolean transformDirty = true;
+    private boolean childTransformDirty = false;
+
     /**
      * Create a new GameEntity with a name.
      *
      * @param name Name of the new entity.
      */
     public GameEntity(String name) {
-        super(name);
-        attributes.put("maxSpeed", 500.0);
-        attributes.put("maxAcceleration", 300.0);
-        attributes.put("mass", 1.0);
+        super(name, DEFAULT_KEYS, DEFAULT_VALUES);
+    }
+
+    /**
+     * Reset the entity to the state of a new instance. The vectors that may be shared through
+     * their setter (position, speed and size) are replaced, the internal ones are reset in place.
+     */
+    @Override
+    public void reset() {
+        super.reset();
+        for (int i = 0; i < DEFAULT_KEYS.size(); i++) {
+            setDouble(DEFAULT_KEYS.get(i), DEFAULT_VALUES[i]);
+        }
+        position = new Vector2D(0, 0);
+        speed = new Vector2D(0, 0);
+        size = new Vector2D(16, 16);
+        previousPosition.zero();
+        acceleration.zero();
+        force.zero();
+        forces.clear();
+        type = EntityType.RECTANGLE;
+        stickToCamera = false;
+        material = null;
+        rotation = 0.0;
+        sleeping = false;
+        restFrames = 0;
+        sleepVersion = 0;
+        color = Color.RED;
+        image = null;
+        mass = 0.0;
+        worldPosition.zero();
+        worldRotation = 0.0;
+        subtreeBounds.setRect(0, 0, 0, 0);
+        transformDirty = true;
+        childTransformDirty = false;
+        if (box != null) {
+            updateBox();
+        }
     }
 
     public GameEntity setPosition(Vector2D pos) {
         this.position = pos;
+        wakeUp();
+        invalidateTransform();
+        this.previousPosition.x = pos.x;
+        this.previousPosition.y = pos.y;
         updateBox();
         return this;
     }
@@ -64,6 +148,7 @@ public class GameEntity extends Entity {
 
     public GameEntity setSize(Vector2D s) {
         this.size = s;
+        invalidateTransform();
         updateBox();
         return this;
     }
@@ -81,6 +166,7 @@ public class GameEntity extends Entity {
 
     public GameEntity setSpeed(Vector2D speed) {
         this.speed = speed;
+        wakeUp();
         return this;
     }
 
@@ -100,6 +186,7 @@ public class GameEntity extends Entity {
         ls.add(String.format("(3)spd: %04.2f,%04.2f", this.speed.x, this.speed.y));
         ls.add(String.format("(3)acc: %04.2f,%04.2f", this.acceleration.x, this.acceleration.y));
         ls.add(String.format("(3)rot: %04.2f", this.rotation));
+        ls.add(String.format("(3)sleep: %s", this.sleeping));
         ls.add(String.format("(4)mass: %04.2f", this.mass));
         ls.add(String.format("(4)mat: %s", this.material));
         return ls;
@@ -120,28 +207,187 @@ public class GameEntity extends Entity {
         return this;
     }
 
+    /**
+     * Update the bounding shape to the current position and size. The existing shape is
+     * updated in place, and only recreated when the entity type has changed.
+     */
     public void updateBox() {
+        // a child box is in world coordinates.
+        Vector2D p = parent instanceof GameEntity ? worldPosition : position;
         switch (type) {
             case CIRCLE -> {
-                this.box = new Ellipse2D.Double(position.x, position.y, size.x, size.y);
+                if (box instanceof Ellipse2D.Double ellipse) {
+                    ellipse.setFrame(p.x, p.y, size.x, size.y);
+                } else {
+                    this.box = new Ellipse2D.Double(p.x, p.y, size.x, size.y);
+                }
             }
             case RECTANGLE, IMAGE -> {
-                this.box = new Rectangle2D.Double(position.x, position.y, size.x, size.y);
+                if (box instanceof Rectangle2D.Double rectangle) {
+                    rectangle.setRect(p.x, p.y, size.x, size.y);
+                } else {
+                    this.box = new Rectangle2D.Double(p.x, p.y, size.x, size.y);
+                }
+            }
+        }
+    }
+
+    public GameEntity setRotation(double r) {
+        this.rotation = r;
+        invalidateTransform();
+        return this;
+    }
+
+    @Override
+    public GameEntity addChild(Entity c) {
+        super.addChild(c);
+        if (c instanceof GameEntity gc) {
+            gc.invalidateTransform();
+        }
+        return this;
+    }
+
+    @Override
+    public GameEntity removeChild(Entity c) {
+        super.removeChild(c);
+        if (c instanceof GameEntity gc) {
+            gc.invalidateTransform();
+        }
+        return this;
+    }
+
+    /**
+     * Signal a change of the local transform: the entity and its subtree world transforms
+     * will be recomputed on the next {@link #updateTransform()}, and its ancestors are flagged
+     * to reach it without visiting the unchanged subtrees.
+     *
+     * @return this GameEntity.
+     */
+    public GameEntity invalidateTransform() {
+        transformDirty = true;
+        Entity p = parent;
+        while (p instanceof GameEntity gp && !gp.childTransformDirty) {
+            gp.childTransformDirty = true;
+            p = gp.parent;
+        }
+        return this;
+    }
+
+    public boolean isTransformDirty() {
+        return transformDirty;
+    }
+
+    /**
+     * Recompute the world transforms, boxes and subtree bounds of the changed nodes of this
+     * subtree. To be called on a root entity.
+     */
+    public void updateTransform() {
+        updateTransform(false);
+    }
+
+    private boolean updateTransform(boolean parentChanged) {
+        boolean changed = parentChanged || transformDirty;
+        if (!changed && !childTransformDirty) {
+            return false;
+        }
+        if (changed) {
+            if (parent instanceof GameEntity p) {
+                double cos = Math.cos(p.worldRotation);
+                double sin = Math.sin(p.worldRotation);
+                worldPosition.x = p.worldPosition.x + position.x * cos - position.y * sin;
+                worldPosition.y = p.worldPosition.y + position.x * sin + position.y * cos;
+                worldRotation = p.worldRotation + rotation;
+            } else {
+                worldPosition.x = position.x;
+                worldPosition.y = position.y;
+                worldRotation = rotation;
+            }
+            updateBox();
+            transformDirty = false;
+        }
+        boolean boundsChanged = changed;
+        for (int i = 0; i < child.size(); i++) {
+            if (child.get(i) instanceof GameEntity c && c.updateTransform(changed)) {
+                boundsChanged = true;
+            }
+        }
+        childTransformDirty = false;
+        if (boundsChanged) {
+            computeSubtreeBounds();
+        }
+        return boundsChanged;
+    }
+
+    private void computeSubtreeBounds() {
+        if (worldRotation == 0.0) {
+            subtreeBounds.setRect(worldPosition.x, worldPosition.y, size.x, size.y);
+        } else {
+            // the rotated box stays inside the circle of its diagonal around its frame origin.
+            double r = Math.sqrt(size.x * size.x + size.y * size.y);
+            subtreeBounds.setRect(worldPosition.x - r, worldPosition.y - r, 2 * r, 2 * r);
+        }
+        for (int i = 0; i < child.size(); i++) {
+            if (child.get(i) instanceof GameEntity c) {
+                Rectangle2D.union(subtreeBounds, c.subtreeBounds, subtreeBounds);
             }
         }
     }
 
     public GameEntity addForces(List<Vector2D> fs) {
         forces.addAll(fs);
+        wakeUp();
         return this;
     }
 
     public GameEntity addForce(Vector2D f) {
         forces.add(f);
+        wakeUp();
         return this;
     }
 
+    /**
+     * Apply a force for the next physic step only, without any allocation.
+     *
+     * @param fx the force on the X axis.
+     * @param fy the force on the Y axis.
+     * @return this GameEntity.
+     */
+    public GameEntity applyForce(double fx, double fy) {
+        force.addLocal(fx, fy);
+        wakeUp();
+        return this;
+    }
+
+    /**
+     * Apply a force for the next physic step only, without any allocation.
+     *
+     * @param f the force to be applied.
+     * @return this GameEntity.
+     */
+    public GameEntity applyForce(Vector2D f) {
+        force.addLocal(f);
+        wakeUp();
+        return this;
+    }
+
+    /**
+     * Wake the entity up so that it is integrated again on the next physic step.
+     * Behaviors moving the entity vectors directly must call it.
+     *
+     * @return this GameEntity.
+     */
+    public GameEntity wakeUp() {
+        sleeping = false;
+        restFrames = 0;
+        return this;
+    }
+
+    public boolean isSleeping() {
+        return sleeping;
+    }
+
     public boolean isAttributeExist(String materialName) {
-        return attributes.containsKey(materialName);
+        AttributeKey<?> key = AttributeKey.find(materialName);
+        return (key != null && hasAttribute(key)) || attributes.containsKey(materialName);
     }
 }
\ No newline at end of file
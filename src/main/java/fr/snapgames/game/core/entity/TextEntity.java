@@ -21,6 +21,17 @@ public class TextEntity extends GameEntity {
         super(name);
     }
 
+    @Override
+    public void reset() {
+        super.reset();
+        text = null;
+        font = null;
+        value = 0;
+        entityValueSource = null;
+        attributeNameSource = null;
+        defaultValueSource = null;
+    }
+
     public TextEntity setText(String text) {
         this.text = text;
         return this;
@@ -5,21 +5,26 @@ import fr.snapgames.game.core.behavior.Behavior;
 import fr.snapgames.game.core.entity.CameraEntity;
 import fr.snapgames.game.core.entity.Entity;
 import fr.snapgames.game.core.entity.GameEntity;
+import fr.snapgames.game.core.service.EntityRef;
 
 import java.awt.*;
 
 public class CameraUpdateBehavior implements Behavior<Entity> {
+    private EntityRef<GameEntity> target;
 
     @Override
     public void update(Game game, Entity entity, double dt) {
         CameraEntity c = (CameraEntity) entity;
-        GameEntity target = (GameEntity) game.getEntities().get(c.target);
+        if (target == null || !target.name.equals(c.target)) {
+            target = new EntityRef<>(c.target);
+        }
+        GameEntity t = target.get(game.getEntityManager());
         dt *= 100;
         c.position.x += Math
-                .ceil((target.position.x + (target.size.x * 0.5) - ((c.viewport.width) * 0.5) - c.position.x)
+                .ceil((t.position.x + (t.size.x * 0.5) - ((c.viewport.width) * 0.5) - c.position.x)
                         * c.tween * dt);
         c.position.y += Math
-                .ceil((target.position.y + (target.size.y * 0.5) - ((c.viewport.height) * 0.5) - c.position.y)
+                .ceil((t.position.y + (t.size.y * 0.5) - ((c.viewport.height) * 0.5) - c.position.y)
                         * c.tween * dt);
     }
 
@@ -2,15 +2,21 @@ package fr.snapgames.game.core.entity.behaviors;
 
 import fr.snapgames.game.Game;
 import fr.snapgames.game.core.behavior.Behavior;
+import fr.snapgames.game.core.entity.AttributeKey;
 import fr.snapgames.game.core.entity.Entity;
 import fr.snapgames.game.core.entity.GameEntity;
-import fr.snapgames.game.core.math.Vector2D;
+import fr.snapgames.game.core.service.EntityRef;
 
 import java.awt.*;
 import java.awt.geom.Ellipse2D;
 
 public class EnemyFollowerBehavior implements Behavior<Entity> {
+    public static final AttributeKey<Double> ATTRACTION_DISTANCE = AttributeKey.ofDouble("attraction.distance");
+    public static final AttributeKey<Double> ATTRACTION_RELEASE = AttributeKey.ofDouble("attraction.release");
+    public static final AttributeKey<Double> ATTRACTION_FORCE = AttributeKey.ofDouble("attraction.force");
+
     private boolean collide;
+    private final EntityRef<GameEntity> player = new EntityRef<>("player");
 
     @Override
     public void input(Game g, Entity e) {
@@ -22,18 +28,18 @@ public class EnemyFollowerBehavior implements Behavior<Entity> {
         // display specific debug information.
         if (game.getDebug() > 2) {
             GameEntity e = (GameEntity) entity;
-            GameEntity p = (GameEntity) game.getEntities().get("player");
+            GameEntity p = player.get(game.getEntityManager());
 
-            if ((double) e.getAttribute("attraction.distance", 0.0) > 0.0) {
+            if (e.getDouble(ATTRACTION_DISTANCE, 0.0) > 0.0) {
                 g.setColor(Color.DARK_GRAY);
-                double d = (double) e.getAttribute("attraction.distance", 0.0);
+                double d = e.getDouble(ATTRACTION_DISTANCE, 0.0);
                 drawDistanceArea(g, e, d, new float[]{2f, 0f, 2f});
                 g.setColor(Color.LIGHT_GRAY);
-                double r = (double) e.getAttribute("attraction.release", 0.0);
+                double r = e.getDouble(ATTRACTION_RELEASE, 0.0);
                 drawDistanceArea(g, e, r, new float[]{1f, 0f, 1f});
             }
             if (collide) {
-                double s = (double) e.getAttribute("attraction.force", 0.0);
+                double s = e.getDouble(ATTRACTION_FORCE, 0.0);
                 g.setColor(Color.GRAY);
                 g.setStroke(new BasicStroke((int) (s / 4.0) + 1));
                 g.drawLine(
@@ -61,22 +67,48 @@ public class EnemyFollowerBehavior implements Behavior<Entity> {
         g.setStroke(new BasicStroke(1));
     }
 
+    /**
+     * The debug draw paints the attraction areas around the entity, and a line to the attracted
+     * player which is released beyond the release distance.
+     */
+    @Override
+    public double getDrawExtent(Game game, Entity entity) {
+        if (game.getDebug() > 2) {
+            GameEntity e = (GameEntity) entity;
+            return Math.max(e.getDouble(ATTRACTION_DISTANCE, 0.0), e.getDouble(ATTRACTION_RELEASE, 0.0));
+        }
+        return 0.0;
+    }
+
+    /**
+     * The update only applies a force to its own entity, reading the player position.
+     */
+    @Override
+    public boolean isParallelSafe() {
+        return true;
+    }
+
     @Override
     public void update(Game game, Entity entity, double dt) {
         // if player near this entity less than distance (attrDist),
         // a force (attrForce) is applied to entity to reach to player.
         GameEntity e = (GameEntity) entity;
-        GameEntity p = (GameEntity) game.getEntities().get("player");
-        double attrDist = (double) e.attributes.get("attraction.distance");
-        double attrRelease = (double) e.attributes.get("attraction.release");
-        double attrForce = (double) e.attributes.get("attraction.force");
-        double distance = p.position.add(p.size.multiply(-0.5))
-                .distance(
-                        e.position.add(e.size.multiply(-0.5)));
+        GameEntity p = player.get(game.getEntityManager());
+        double attrDist = e.getDouble(ATTRACTION_DISTANCE, 0.0);
+        double attrRelease = e.getDouble(ATTRACTION_RELEASE, 0.0);
+        double attrForce = e.getDouble(ATTRACTION_FORCE, 0.0);
+        // distance between the two (position - size/2) points, computed without any temporary vector.
+        double dx = (p.position.x - p.size.x * 0.5) - (e.position.x - e.size.x * 0.5);
+        double dy = (p.position.y - p.size.y * 0.5) - (e.position.y - e.size.y * 0.5);
+        double distance = Math.sqrt(dx * dx + dy * dy);
         if (distance < attrDist) {
             this.collide = true;
-            Vector2D v = p.position.substract(e.position);
-            e.forces.add(v.normalize().multiply(attrForce));
+            double vx = p.position.x - e.position.x;
+            double vy = p.position.y - e.position.y;
+            double l = Math.sqrt(vx * vx + vy * vy);
+            if (l != 0.0) {
+                e.applyForce(vx / l * attrForce, vy / l * attrForce);
+            }
         }
         if (distance > attrRelease) {
             this.collide = false;
@@ -6,12 +6,13 @@ import java.awt.event.KeyEvent;
 
 import fr.snapgames.game.Game;
 import fr.snapgames.game.core.behavior.Behavior;
+import fr.snapgames.game.core.entity.AttributeKey;
 import fr.snapgames.game.core.entity.Entity;
 import fr.snapgames.game.core.entity.GameEntity;
 import fr.snapgames.game.core.io.Input;
-import fr.snapgames.game.core.math.Vector2D;
 
 public class PlayerInputBehavior implements Behavior<Entity> {
+    public static final AttributeKey<Double> SPEED_STEP = AttributeKey.ofDouble("speedStep");
 
     @Override
     public void update(Game game, Entity entity, double dt) {
@@ -22,22 +23,22 @@ public class PlayerInputBehavior implements Behavior<Entity> {
     public void input(Game game, Entity entity) {
         Input input = game.getInput();
         GameEntity e = (GameEntity) entity;
-        double accel = (Double) entity.getAttribute("speedStep", 1.0);
+        double accel = entity.getDouble(SPEED_STEP, 1.0);
         if (input.getKey(KeyEvent.VK_ESCAPE)) {
             game.requestExit(true);
         }
 
         if (input.getKey(KeyEvent.VK_UP)) {
-            e.forces.add(new Vector2D(0, -accel));
+            e.applyForce(0, -accel);
         }
         if (input.getKey(KeyEvent.VK_DOWN)) {
-            e.forces.add(new Vector2D(0, accel));
+            e.applyForce(0, accel);
         }
         if (input.getKey(KeyEvent.VK_RIGHT)) {
-            e.forces.add(new Vector2D(accel, 0));
+            e.applyForce(accel, 0);
         }
         if (input.getKey(KeyEvent.VK_LEFT)) {
-            e.forces.add(new Vector2D(-accel, 0));
+            e.applyForce(-accel, 0);
         }
     }
 
@@ -4,15 +4,18 @@ import java.awt.Graphics2D;
 
 import fr.snapgames.game.Game;
 import fr.snapgames.game.core.behavior.Behavior;
+import fr.snapgames.game.core.entity.AttributeKey;
 import fr.snapgames.game.core.entity.Entity;
+import fr.snapgames.game.core.service.EntityRef;
 
 public class ScoreUpdateBehavior implements Behavior<Entity> {
+    public static final AttributeKey<Integer> SCORE = AttributeKey.ofInt("score");
+    private final EntityRef<Entity> player = new EntityRef<>("player");
 
     @Override
     public void update(Game game, Entity entity, double dt) {
-        int score = (int) game.getEntities().get("player").getAttribute("score", 0);
-        score += 1;
-        game.getEntities().get("player").setAttribute("score", score);
+        Entity p = player.get(game.getEntityManager());
+        p.setInt(SCORE, p.getInt(SCORE, 0) + 1);
     }
 
     @Override
@@ -0,0 +1,178 @@
+package fr.snapgames.game.core.gfx;
+
+import fr.snapgames.game.Game;
+import fr.snapgames.game.core.entity.CameraEntity;
+import fr.snapgames.game.core.entity.Entity;
+import fr.snapgames.game.core.entity.EntityType;
+import fr.snapgames.game.core.entity.GameEntity;
+import fr.snapgames.game.core.entity.TextEntity;
+import fr.snapgames.game.core.math.Vector2D;
+import fr.snapgames.game.core.math.physic.World;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * A copy of everything the {@link Renderer} needs to draw one frame: the entities
+ * transform (position, size, rotation, color, type), the camera and world state, and
+ * the debug information.
+ * <p>
+ * In the pipelined loop mode, the update thread captures the game state into one
+ * snapshot while the render thread draws the other one; both snapshots are swapped
+ * once each thread is done with its own. A published snapshot is only read by the
+ * render thread until it is handed back to the update thread.
+ * <p>
+ * The {@link fr.snapgames.game.core.gfx.plugins.RendererPlugin} and the behaviors draws are
+ * not part of a snapshot: they read the live entities, which the update thread is changing
+ * meanwhile, so this mode only draws the built-in entity types.
+ *
+ * @author Frédéric Delorme
+ * @since 1.0.1
+ */
+public class RenderSnapshot {
+
+    int count = 0;
+    double[] x = new double[0];
+    double[] y = new double[0];
+    double[] width = new double[0];
+    double[] height = new double[0];
+    double[] rotation = new double[0];
+    Color[] color = new Color[0];
+    EntityType[] type = new EntityType[0];
+    boolean[] sticky = new boolean[0];
+    boolean[] flip = new boolean[0];
+    BufferedImage[] image = new BufferedImage[0];
+    String[] text = new String[0];
+    Font[] font = new Font[0];
+    // the debug lines of the entities listed in game.debug.entity.list, null for the others.
+    String[][] debugInfo = new String[0][];
+
+    boolean hasCamera;
+    double cameraX;
+    double cameraY;
+    double cameraRotation;
+    String cameraName;
+    final Dimension viewport = new Dimension();
+
+    final Dimension playArea = new Dimension();
+    final Vector2D gravity = new Vector2D(0, 0);
+
+    boolean pause;
+    int debug;
+    String debugEntityNames = "";
+    long realFPS;
+    long gameTime;
+    int objects;
+
+    /**
+     * Capture the current state of the game entities and camera.
+     *
+     * @param game the Game to be captured.
+     */
+    public void capture(Game game) {
+        pause = game.getPause();
+        debug = game.getDebug();
+        if (debug > 0) {
+            debugEntityNames = game.getConfiguration().getString("game.debug.entity.list", "");
+        }
+        List<Entity> entities = game.getEntityList();
+        ensureCapacity(entities.size());
+        count = 0;
+        for (int i = 0; i < entities.size(); i++) {
+            if (entities.get(i) instanceof GameEntity ge) {
+                capture(ge, ge.isStickToCamera());
+            }
+        }
+        CameraEntity cam = game.getCurrentCamera();
+        hasCamera = Optional.ofNullable(cam).isPresent();
+        if (hasCamera) {
+            cameraX = cam.position.x;
+            cameraY = cam.position.y;
+            cameraRotation = cam.rotation;
+            cameraName = cam.name;
+            viewport.setSize(cam.viewport);
+        }
+        World world = game.getPhysicEngine().getWorld();
+        playArea.setSize(world.getPlayArea());
+        gravity.x = world.getGravity().x;
+        gravity.y = world.getGravity().y;
+        realFPS = game.getRealFPS();
+        gameTime = game.getCurrentGameTime();
+        objects = game.getEntities().size();
+    }
+
+    /**
+     * Capture an entity and its children, the children with their cached world transform.
+     */
+    private void capture(GameEntity ge, boolean isSticky) {
+        ensureCapacity(count + 1);
+        boolean root = !(ge.parent instanceof GameEntity);
+        x[count] = root ? ge.position.x : ge.worldPosition.x;
+        y[count] = root ? ge.position.y : ge.worldPosition.y;
+        width[count] = ge.size.x;
+        height[count] = ge.size.y;
+        rotation[count] = root ? ge.rotation : ge.worldRotation;
+        color[count] = ge.color;
+        type[count] = ge.type;
+        sticky[count] = isSticky;
+        flip[count] = ge.speed.x <= 0;
+        image[count] = ge.image;
+        if (ge instanceof TextEntity te) {
+            text[count] = te.getText();
+            font[count] = te.font;
+        } else {
+            text[count] = null;
+            font[count] = null;
+        }
+        debugInfo[count] = debug > 0 && debugEntityNames.contains(ge.name) ? captureDebugInfo(ge) : null;
+        count++;
+        for (int i = 0; i < ge.child.size(); i++) {
+            if (ge.child.get(i) instanceof GameEntity c) {
+                capture(c, isSticky);
+            }
+        }
+    }
+
+    /**
+     * Keep the debug lines of the entity to be displayed at the current debug level
+     * (see {@link GameEntity#getDebugInfo()}).
+     */
+    private String[] captureDebugInfo(GameEntity ge) {
+        List<String> lines = new ArrayList<>();
+        for (String line : ge.getDebugInfo()) {
+            if (!line.startsWith("(")) {
+                lines.add(line);
+            } else if (Integer.parseInt(line.substring(1, 2)) <= debug) {
+                lines.add(line.substring(3));
+            }
+        }
+        return lines.toArray(new String[0]);
+    }
+
+    private void ensureCapacity(int size) {
+        if (x.length < size) {
+            int capacity = Math.max(size, x.length * 2);
+            x = Arrays.copyOf(x, capacity);
+            y = Arrays.copyOf(y, capacity);
+            width = Arrays.copyOf(width, capacity);
+            height = Arrays.copyOf(height, capacity);
+            rotation = Arrays.copyOf(rotation, capacity);
+            color = Arrays.copyOf(color, capacity);
+            type = Arrays.copyOf(type, capacity);
+            sticky = Arrays.copyOf(sticky, capacity);
+            flip = Arrays.copyOf(flip, capacity);
+            image = Arrays.copyOf(image, capacity);
+            text = Arrays.copyOf(text, capacity);
+            font = Arrays.copyOf(font, capacity);
+            debugInfo = Arrays.copyOf(debugInfo, capacity);
+        }
+    }
+
+    public int getCount() {
+        return count;
+    }
+}
@@ -6,20 +6,26 @@ import fr.snapgames.game.core.entity.CameraEntity;
 import fr.snapgames.game.core.entity.GameEntity;
 import fr.snapgames.game.core.behavior.Behavior;
 import fr.snapgames.game.core.entity.Entity;
+import fr.snapgames.game.core.entity.EntityType;
 import fr.snapgames.game.core.gfx.plugins.GameEntityDrawPlugin;
 import fr.snapgames.game.core.gfx.plugins.InfluencerDrawPlugin;
 import fr.snapgames.game.core.gfx.plugins.RendererPlugin;
 import fr.snapgames.game.core.gfx.plugins.TextEntityDrawPlugin;
+import fr.snapgames.game.core.math.Vector2D;
 import fr.snapgames.game.core.math.physic.PhysicEngine;
 import fr.snapgames.game.core.scene.Scene;
 import fr.snapgames.game.core.utils.Converters;
+import fr.snapgames.game.core.utils.FrameProfiler;
 import fr.snapgames.game.core.utils.I18n;
 
 import javax.swing.*;
 import java.awt.*;
+import java.awt.geom.AffineTransform;
 import java.awt.geom.Ellipse2D;
+import java.awt.geom.Rectangle2D;
 import java.awt.image.BufferedImage;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 
@@ -35,9 +41,19 @@ public class Renderer {
     JFrame frame;
     BufferedImage buffer;
     CameraEntity currentCamera;
+    // interpolated camera position for the current frame.
+    double cameraX;
+    double cameraY;
+    // interpolation factor between previous and current physic state.
+    double alpha = 1.0;
     // Internal components
     Color clearColor = Color.BLACK;
 
+    // view culling: only the root entities whose subtree bounds intersect the camera view are drawn.
+    private final boolean culling;
+    private final double cullingMargin;
+    private final Rectangle2D.Double view = new Rectangle2D.Double();
+
     private Map<Class<? extends Entity>, RendererPlugin> plugins = new HashMap<>();
     private Game game;
 
@@ -45,21 +61,60 @@ public class Renderer {
         this.game = g;
         config = g.getConfiguration();
         frame = g.getFrame();
-        buffer = new BufferedImage(frame.getWidth(), frame.getHeight(), BufferedImage.TYPE_INT_ARGB);
+        if (Optional.ofNullable(frame).isPresent()) {
+            buffer = new BufferedImage(frame.getWidth(), frame.getHeight(), BufferedImage.TYPE_INT_ARGB);
+        } else {
+            // headless mode: render into an offscreen buffer sized on the game viewport.
+            buffer = new BufferedImage(
+                    config.getInteger("game.screen.width", 320),
+                    config.getInteger("game.screen.height", 200),
+                    BufferedImage.TYPE_INT_ARGB);
+        }
         debugEntityNames = config.getString("game.debug.entity.list", "");
+        culling = config.getBoolean("game.render.culling.enabled", false);
+        cullingMargin = config.getDouble("game.render.culling.margin", 16.0);
         addPlugin(new GameEntityDrawPlugin());
         addPlugin(new TextEntityDrawPlugin());
         addPlugin(new InfluencerDrawPlugin());
     }
 
+    /**
+     * Retrieve the offscreen buffer where the scene is drawn.
+     *
+     * @return the BufferedImage used as rendering buffer.
+     */
+    public BufferedImage getBuffer() {
+        return buffer;
+    }
+
     public void addPlugin(RendererPlugin rp) {
         this.plugins.put(rp.entityType(), rp);
     }
 
     public void draw(Game game, Scene scene, long realFPS) {
+        draw(game, scene, realFPS, 1.0);
+    }
+
+    /**
+     * Draw the scene, interpolating the entities position between the previous and the current physic
+     * state with the <code>alpha</code> factor.
+     *
+     * @param game    the parent Game.
+     * @param scene   the Scene to be drawn.
+     * @param realFPS the measured frame rate to be displayed.
+     * @param alpha   the interpolation factor, from 0.0 (previous state) to 1.0 (current state).
+     */
+    public void draw(Game game, Scene scene, long realFPS, double alpha) {
         currentCamera = game.getCurrentCamera();
+        this.alpha = alpha;
+        if (Optional.ofNullable(currentCamera).isPresent()) {
+            cameraX = interpolate(currentCamera.previousPosition.x, currentCamera.position.x);
+            cameraY = interpolate(currentCamera.previousPosition.y, currentCamera.position.y);
+        }
         double scale = config.getDouble("game.screen.scale", 2.0);
+        FrameProfiler profiler = game.getProfiler();
         if (Optional.ofNullable(buffer).isPresent()) {
+            long start = profiler.start();
             Graphics2D g = buffer.createGraphics();
             g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
             g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
@@ -73,34 +128,190 @@ public class Renderer {
 
             drawPlayAreaGrid(g, 32, game.getPhysicEngine());
 
-            scene.getEntities().values().forEach(e -> {
-                GameEntity entity = (GameEntity) e;
+            List<Entity> entities = game.getEntityList();
+            boolean cull = culling && Optional.ofNullable(currentCamera).isPresent();
+            if (cull) {
+                updateCullingView();
+            }
+            for (int i = 0; i < entities.size(); i++) {
+                GameEntity entity = (GameEntity) entities.get(i);
+                if (cull && !isInView(entity, 0.0)) {
+                    drawBehaviorsInView(game, g, entity);
+                    continue;
+                }
                 preDraw(g, entity.isStickToCamera());
-                for (Behavior b : entity.behaviors) {
-                    b.draw(game, entity, g);
+                for (int j = 0; j < entity.behaviors.size(); j++) {
+                    entity.behaviors.get(j).draw(game, entity, g);
                 }
+                double dx = interpolate(entity.previousPosition.x, entity.position.x) - entity.position.x;
+                double dy = interpolate(entity.previousPosition.y, entity.position.y) - entity.position.y;
+                g.translate(dx, dy);
                 drawEntity(g, entity);
+                g.translate(-dx, -dy);
                 postDraw(g, entity.isStickToCamera());
-            });
+            }
+
+            if (Optional.ofNullable(currentCamera).isPresent()) {
+                displayPauseMessage(g, game.getPause(), currentCamera.viewport);
+            }
+            profiler.record(FrameProfiler.Phase.SCENE_DRAW, start);
 
-            displayPauseMessage(g, game.getPause());
+            start = profiler.start();
             if (game.getDebug() > 0) {
                 drawDisplayDebugInfo(game, g, 32);
                 if (Optional.ofNullable(currentCamera).isPresent()) {
-                    drawCameraDebug(g, currentCamera);
+                    drawCameraDebug(g, currentCamera.name, currentCamera.position.x, currentCamera.position.y,
+                            currentCamera.rotation, currentCamera.viewport);
                     drawScreenDebugLine(g, currentCamera.viewport);
                 }
             }
+            profiler.record(FrameProfiler.Phase.DEBUG_DRAW, start);
+
+            // draw image to screen.
+            start = profiler.start();
+            drawToWindow(realFPS, scale, game.getDebug());
+            profiler.record(FrameProfiler.Phase.SHOW, start);
+
+            g.dispose();
+        }
+    }
+
+    private double interpolate(double previous, double current) {
+        return alpha < 1.0 ? previous + (current - previous) * alpha : current;
+    }
+
+    /**
+     * Draw a frame from a {@link RenderSnapshot} captured by the update thread.
+     * This is the rendering path of the pipelined loop mode: no live game state
+     * is read here, except the immutable resources (image, font) referenced by the snapshot.
+     * The renderer plugins and the behaviors draws are not called in this mode, as they
+     * read the live entities.
+     *
+     * @param game the parent Game.
+     * @param s    the snapshot to be drawn.
+     */
+    public void draw(Game game, RenderSnapshot s) {
+        double scale = config.getDouble("game.screen.scale", 2.0);
+        FrameProfiler profiler = game.getProfiler();
+        if (Optional.ofNullable(buffer).isPresent()) {
+            long start = profiler.start();
+            Graphics2D g = buffer.createGraphics();
+            g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+            g.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+            // clear scene
+            g.setColor(clearColor);
+            g.clearRect(0, 0, buffer.getWidth(), buffer.getHeight());
+
+            AffineTransform screen = g.getTransform();
+            AffineTransform world = new AffineTransform(screen);
+            if (s.hasCamera) {
+                if (s.cameraRotation != 0.0) {
+                    world.rotate(-s.cameraRotation, s.viewport.width * 0.5, s.viewport.height * 0.5);
+                }
+                world.translate(-s.cameraX, -s.cameraY);
+            }
+            g.setTransform(world);
+            drawPlayAreaGrid(g, 32, s.playArea);
+
+            for (int i = 0; i < s.count; i++) {
+                g.setTransform(s.sticky[i] ? screen : world);
+                drawSnapshotEntity(g, s, i);
+            }
+            g.setTransform(screen);
+
+            if (s.hasCamera) {
+                displayPauseMessage(g, s.pause, s.viewport);
+            }
+            profiler.record(FrameProfiler.Phase.SCENE_DRAW, start);
+
+            start = profiler.start();
+            if (s.debug > 0) {
+                drawSnapshotDebugInfo(g, s, screen, world);
+                g.setTransform(screen);
+                if (s.hasCamera) {
+                    drawCameraDebug(g, s.cameraName, s.cameraX, s.cameraY, s.cameraRotation, s.viewport);
+                    drawScreenDebugLine(g, s.viewport, s.debug, s.realFPS, s.objects, s.gameTime, s.gravity);
+                }
+            }
+            profiler.record(FrameProfiler.Phase.DEBUG_DRAW, start);
+
             // draw image to screen.
-            drawToWindow(realFPS, scale);
+            start = profiler.start();
+            drawToWindow(s.realFPS, scale, s.debug);
+            profiler.record(FrameProfiler.Phase.SHOW, start);
 
             g.dispose();
         }
     }
 
-    private void displayPauseMessage(Graphics2D g, boolean pause) {
+    /**
+     * Draw the entities debug boxes and lines, and the play area bounds, from the snapshot
+     * (the {@link #drawDisplayDebugInfo(Game, Graphics2D, int)} of the pipelined mode).
+     */
+    private void drawSnapshotDebugInfo(Graphics2D g, RenderSnapshot s, AffineTransform screen, AffineTransform world) {
+        g.setFont(g.getFont().deriveFont(9.0f));
+        int hl = g.getFontMetrics().getHeight();
+        for (int i = 0; i < s.count; i++) {
+            g.setTransform(s.sticky[i] ? screen : world);
+            g.setColor(Color.ORANGE);
+            if (s.type[i] == EntityType.CIRCLE) {
+                g.draw(new Ellipse2D.Double(s.x[i], s.y[i], s.width[i], s.height[i]));
+            } else {
+                g.draw(new Rectangle2D.Double(s.x[i], s.y[i], s.width[i], s.height[i]));
+            }
+            if (s.debugInfo[i] != null) {
+                g.setColor(Color.WHITE);
+                int il = 0;
+                for (String line : s.debugInfo[i]) {
+                    g.drawString(line, (int) (s.x[i] + s.width[i] + 4.0), (int) s.y[i] + il);
+                    il += hl - 3;
+                }
+            }
+        }
+        // drawn in screen coordinates, as the live path does.
+        g.setTransform(screen);
+        g.setColor(Color.ORANGE);
+        g.drawRect(0, 0, s.playArea.width, s.playArea.height);
+    }
+
+    private void drawSnapshotEntity(Graphics2D g, RenderSnapshot s, int i) {
+        g.rotate(s.rotation[i], s.width[i] * 0.5, s.height[i] * 0.5);
+        if (Optional.ofNullable(s.text[i]).isPresent()) {
+            g.setColor(s.color[i]);
+            g.setFont(s.font[i]);
+            int fh = g.getFontMetrics().getHeight()
+                    - g.getFontMetrics().getAscent()
+                    + g.getFontMetrics().getDescent();
+            g.drawString(s.text[i], (int) s.x[i], (int) s.y[i] + fh);
+            return;
+        }
+        switch (s.type[i]) {
+            case IMAGE -> {
+                if (Optional.ofNullable(s.image[i]).isPresent()) {
+                    if (s.flip[i]) {
+                        g.drawImage(s.image[i],
+                                (int) (s.x[i] + s.width[i]), (int) s.y[i],
+                                (int) -s.width[i], (int) s.height[i],
+                                null);
+                    } else {
+                        g.drawImage(s.image[i], (int) s.x[i], (int) s.y[i], null);
+                    }
+                }
+            }
+            case RECTANGLE -> {
+                g.setColor(s.color[i]);
+                g.fillRect((int) s.x[i], (int) s.y[i], (int) s.width[i], (int) s.height[i]);
+            }
+            case CIRCLE -> {
+                g.setColor(s.color[i]);
+                g.fill(new Ellipse2D.Double(s.x[i], s.y[i], s.width[i], s.height[i]));
+            }
+        }
+    }
+
+    private void displayPauseMessage(Graphics2D g, boolean pause, Dimension viewport) {
         if (pause) {
-            Dimension viewport = currentCamera.viewport;
             g.setColor(new Color(0.3f, 0.6f, 0.4f, 0.9f));
             g.fillRect(0, (viewport.height - 24) / 2, viewport.width, 24);
 
@@ -112,12 +323,12 @@ public class Renderer {
 
             g.drawString(
                     pauseTxt,
-                    (currentCamera.viewport.width - lng) / 2,
-                    (currentCamera.viewport.height + 12) / 2);
+                    (viewport.width - lng) / 2,
+                    (viewport.height + 12) / 2);
         }
     }
 
-    private void drawToWindow(double realFPS, double scale) {
+    private void drawToWindow(double realFPS, double scale, int debug) {
         if (Optional.ofNullable(frame).isPresent() && frame.getBufferStrategy() != null) {
             if (frame.getBufferStrategy().getDrawGraphics() == null) {
                 return;
@@ -128,7 +339,7 @@ public class Renderer {
             g2.drawImage(buffer, 0, 18,
                     null);
             g2.scale(1.0 / scale, 1.0 / scale);
-            if (game.getDebug() > 1) {
+            if (debug > 1) {
                 g2.setColor(Color.ORANGE);
 
                 g2.setFont(g2.getFont().deriveFont(11.0f));
@@ -142,19 +353,66 @@ public class Renderer {
     }
 
     private void drawScreenDebugLine(Graphics2D g, Dimension viewport) {
+        drawScreenDebugLine(g, viewport,
+                game.getDebug(),
+                game.getRealFPS(),
+                game.getEntities().size(),
+                game.getCurrentGameTime(),
+                game.getPhysicEngine().getWorld().getGravity());
+    }
+
+    private void drawScreenDebugLine(Graphics2D g, Dimension viewport,
+                                     int debug, long realFPS, int nbObjects, long gameTime, Vector2D gravity) {
         g.setColor(new Color(0.3f, 0.0f, 0.0f, 0.7f));
         g.fillRect(0, viewport.height - 20, viewport.width, 20);
         g.setColor(new Color(0.6f, 0.0f, 0.0f, 0.7f));
         g.drawLine(0, viewport.height - 20, viewport.width, viewport.height - 20);
         g.setColor(Color.ORANGE);
         String text = String.format("[ dbg:%01d | fps:%03d | obj:%d | time: %s | g:%s]",
-                game.getDebug(),
-                game.getRealFPS(),
-                game.getEntities().size(),
-                Converters.formatTime(game.getCurrentGameTime()),
-                game.getPhysicEngine().getWorld().getGravity());
+                debug,
+                realFPS,
+                nbObjects,
+                Converters.formatTime(gameTime),
+                gravity);
         g.setFont(g.getFont().deriveFont(10.0f));
         g.drawString(text, 8, viewport.height - 8);
+        if (debug > 3 && game.getProfiler().isEnabled()) {
+            drawProfilerStats(g, viewport, game.getProfiler());
+        }
+    }
+
+    /**
+     * Draw the frame phases latency percentiles above the debug line, each one with
+     * a bar showing the p50 (plain) and p99 (dark) against the frame time budget.
+     *
+     * @param g        the Graphics API.
+     * @param viewport the current viewport.
+     * @param profiler the FrameProfiler providing statistics.
+     */
+    private void drawProfilerStats(Graphics2D g, Dimension viewport, FrameProfiler profiler) {
+        FrameProfiler.Phase[] phases = FrameProfiler.Phase.values();
+        double budget = 1000000000.0 / config.getDouble("game.screen.fps", 60.0);
+        int lineHeight = 10;
+        int barWidth = 60;
+        int top = viewport.height - 24 - (phases.length + 1) * lineHeight;
+        g.setColor(new Color(0.1f, 0.1f, 0.1f, 0.7f));
+        g.fillRect(4, top - lineHeight, viewport.width - 8, (phases.length + 1) * lineHeight + 4);
+        g.setFont(g.getFont().deriveFont(8.0f));
+        g.setColor(Color.ORANGE);
+        g.drawString(String.format("%-10s %6s %6s %6s %6s (ms)", "phase", "p50", "p95", "p99", "max"), 8, top);
+        for (int i = 0; i < phases.length; i++) {
+            long[] p = profiler.getPercentiles(phases[i]);
+            int y = top + (i + 1) * lineHeight;
+            g.setColor(Color.WHITE);
+            g.drawString(String.format("%-10s %6.2f %6.2f %6.2f %6.2f",
+                    phases[i].getLabel(),
+                    p[0] * 0.000001, p[1] * 0.000001, p[2] * 0.000001, p[3] * 0.000001), 8, y);
+            int x = viewport.width - barWidth - 8;
+            g.setColor(Color.DARK_GRAY);
+            g.fillRect(x, y - 6, (int) Math.min(barWidth, barWidth * p[2] / budget), 6);
+            g.setColor(Color.GREEN);
+            g.fillRect(x, y - 6, (int) Math.min(barWidth, barWidth * p[0] / budget), 6);
+        }
     }
 
     private void preDraw(Graphics2D g, boolean isSticky) {
@@ -163,13 +421,13 @@ public class Renderer {
                 g.rotate(-currentCamera.rotation, currentCamera.viewport.width * 0.5,
                         currentCamera.viewport.height * 0.5);
             }
-            g.translate(-currentCamera.position.x, -currentCamera.position.y);
+            g.translate(-cameraX, -cameraY);
         }
     }
 
     private void postDraw(Graphics2D g, boolean isSticky) {
         if (Optional.ofNullable(currentCamera).isPresent() && !isSticky) {
-            g.translate(currentCamera.position.x, currentCamera.position.y);
+            g.translate(cameraX, cameraY);
             if (currentCamera.rotation != 0.0) {
                 g.rotate(currentCamera.rotation, currentCamera.viewport.width * 0.5,
                         currentCamera.viewport.height * 0.5);
@@ -177,12 +435,87 @@ public class Renderer {
         }
     }
 
+    /**
+     * Draw the entity and its children: the children are drawn into the frame of their parent
+     * (translated to its position and rotated by its rotation), as their transform is local.
+     *
+     * @param g the Graphics API.
+     * @param e the Entity to be drawn.
+     */
     public void drawEntity(Graphics2D g, Entity e) {
+        AffineTransform t = g.getTransform();
         if (plugins.containsKey(e.getClass())) {
             RendererPlugin rp = plugins.get(e.getClass());
             rp.draw(g, e);
+            g.setTransform(t);
+        }
+        if (!e.child.isEmpty()) {
+            if (e instanceof GameEntity ge) {
+                g.translate(ge.position.x, ge.position.y);
+                g.rotate(ge.rotation);
+            }
+            for (int i = 0; i < e.child.size(); i++) {
+                drawEntity(g, e.child.get(i));
+            }
+            g.setTransform(t);
+        }
+    }
+
+    /**
+     * Compute the culling view: the bounding box of the rotated viewport at the interpolated camera
+     * position, extended by the <code>game.render.culling.margin</code> to cover the interpolated
+     * positions of the entities.
+     */
+    private void updateCullingView() {
+        currentCamera.getViewBounds(view);
+        view.setRect(view.x + cameraX - currentCamera.position.x - cullingMargin,
+                view.y + cameraY - currentCamera.position.y - cullingMargin,
+                view.width + 2 * cullingMargin,
+                view.height + 2 * cullingMargin);
+    }
+
+    /**
+     * Check if a root entity must be drawn: its subtree bounds, extended by a distance, intersect the
+     * culling view. The entities sticking to the camera, and the ones without bounds yet, are always drawn.
+     *
+     * @param e      the root GameEntity.
+     * @param extent the distance the bounds are extended by.
+     * @return true if the entity is to be drawn.
+     */
+    private boolean isInView(GameEntity e, double extent) {
+        if (e.isStickToCamera() || e.subtreeBounds.isEmpty()) {
+            return true;
+        }
+        Rectangle2D.Double b = e.subtreeBounds;
+        return b.x - extent < view.x + view.width && b.x + b.width + extent > view.x
+                && b.y - extent < view.y + view.height && b.y + b.height + extent > view.y;
+    }
+
+    /**
+     * Draw the behaviors of a culled entity whose declared draw extent still reaches the culling view
+     * (see {@link Behavior#getDrawExtent(Game, Object)}).
+     *
+     * @param game   the parent Game.
+     * @param g      the Graphics API.
+     * @param entity the culled root GameEntity.
+     */
+    @SuppressWarnings("unchecked")
+    private void drawBehaviorsInView(Game game, Graphics2D g, GameEntity entity) {
+        boolean drawing = false;
+        for (int j = 0; j < entity.behaviors.size(); j++) {
+            Behavior<Entity> b = entity.behaviors.get(j);
+            double extent = b.getDrawExtent(game, entity);
+            if (extent > 0.0 && isInView(entity, extent)) {
+                if (!drawing) {
+                    preDraw(g, entity.isStickToCamera());
+                    drawing = true;
+                }
+                b.draw(game, entity, g);
+            }
+        }
+        if (drawing) {
+            postDraw(g, entity.isStickToCamera());
         }
-        e.child.forEach(c -> drawEntity(g, c));
     }
 
     /**
@@ -198,8 +531,9 @@ public class Renderer {
         g.setFont(g.getFont().deriveFont(9.0f));
 
         g.setColor(Color.ORANGE);
-        game.getEntities().forEach((name, e) -> {
-            GameEntity entity = (GameEntity) e;
+        List<Entity> entities = game.getEntityList();
+        for (int i = 0; i < entities.size(); i++) {
+            GameEntity entity = (GameEntity) entities.get(i);
             preDraw(g, entity.isStickToCamera());
 
             drawEntityDebugBox(g, entity, Color.ORANGE);
@@ -208,8 +542,7 @@ public class Renderer {
                 drawEntityDebugLine(g, entity);
             }
             postDraw(g, entity.isStickToCamera());
-
-        });
+        }
         g.drawRect(0, 0,
                 pe.getWorld().getPlayArea().width,
                 pe.getWorld().getPlayArea().height);
@@ -217,18 +550,22 @@ public class Renderer {
 
     private void drawPlayAreaGrid(Graphics2D g, int step, PhysicEngine pe) {
         preDraw(g, false);
+        drawPlayAreaGrid(g, step, pe.getWorld().getPlayArea());
+        postDraw(g, false);
+    }
+
+    private void drawPlayAreaGrid(Graphics2D g, int step, Dimension playArea) {
         g.setColor(Color.GRAY);
-        for (int x = 0; x < pe.getWorld().getPlayArea().getWidth(); x += step) {
-            g.drawLine(x, 0, x, (int) pe.getWorld().getPlayArea().getHeight());
+        for (int x = 0; x < playArea.getWidth(); x += step) {
+            g.drawLine(x, 0, x, (int) playArea.getHeight());
         }
-        for (int y = 0; y < pe.getWorld().getPlayArea().getHeight(); y += step) {
-            g.drawLine(0, y, (int) pe.getWorld().getPlayArea().getWidth(), y);
+        for (int y = 0; y < playArea.getHeight(); y += step) {
+            g.drawLine(0, y, (int) playArea.getWidth(), y);
         }
         g.setColor(Color.CYAN);
         g.drawRect(0, 0,
-                (int) pe.getWorld().getPlayArea().getWidth(),
-                (int) pe.getWorld().getPlayArea().getHeight());
-        postDraw(g, false);
+                (int) playArea.getWidth(),
+                (int) playArea.getHeight());
     }
 
     private void drawEntityDebugBox(Graphics2D g, GameEntity e, Color c) {
@@ -266,13 +603,13 @@ public class Renderer {
         }
     }
 
-    private void drawCameraDebug(Graphics2D g, CameraEntity camera) {
+    private void drawCameraDebug(Graphics2D g, String name, double x, double y, double rotation, Dimension viewport) {
         g.setColor(Color.YELLOW);
-        g.drawRect(10, 10, camera.viewport.width - 20, camera.viewport.height - 20);
+        g.drawRect(10, 10, viewport.width - 20, viewport.height - 20);
         g.setColor(Color.WHITE);
-        g.drawString(String.format("cam: %s", camera.name), 20, 20);
-        g.drawString(String.format("pos: %04.2f,%04.2f", camera.position.x, camera.position.y), 20, 32);
-        g.drawString(String.format("rot: %04.2f°", Math.toDegrees(camera.rotation)), 20, 44);
-        g.drawString(String.format("target: %s", camera.name), 20, 56);
+        g.drawString(String.format("cam: %s", name), 20, 20);
+        g.drawString(String.format("pos: %04.2f,%04.2f", x, y), 20, 32);
+        g.drawString(String.format("rot: %04.2f°", Math.toDegrees(rotation)), 20, 44);
+        g.drawString(String.format("target: %s", name), 20, 56);
     }
 }
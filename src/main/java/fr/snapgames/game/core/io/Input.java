@@ -1,8 +1,19 @@
 package fr.snapgames.game.core.io;
 
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.BitSet;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Queue;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
 
 import fr.snapgames.game.Game;
 
@@ -11,21 +22,65 @@ import java.awt.event.KeyListener;
 
 /**
  * Internal Input listener.
+ * <p>
+ * Besides the live mode, the Input can record the key states of each frame into
+ * a compact binary file, and replay such a file frame by frame instead of the
+ * keyboard, to reproduce exactly the same game session.
+ * <p>
+ * Record file format (big endian):
+ * <ul>
+ * <li>header: magic <code>SGIR</code> (int), version (short), random seed (long), physic step rate (double),</li>
+ * <li>for each frame: number of pressed keys (unsigned byte, {@link #SAME_KEYS} if unchanged since previous frame)
+ * followed by the key codes (short), then number of typed keys (unsigned byte) followed by the typed chars (char).</li>
+ * </ul>
  *
  * @author Frédéric Delorme
  */
 public class Input implements KeyListener {
+
+    public enum Mode {
+        LIVE,
+        RECORD,
+        REPLAY
+    }
+
+    private static final int MAGIC = 0x53474952;
+    private static final short VERSION = 1;
+    private static final int SAME_KEYS = 0xFF;
+
     Game game;
     Map<Integer, KeyEvent> events = new ConcurrentHashMap<>();
 
+    private Mode mode = Mode.LIVE;
+    // key states and typed keys of the current frame in record and replay modes.
+    private final BitSet frameKeys = new BitSet();
+    private final BitSet previousFrameKeys = new BitSet();
+    private final Queue<Character> typedKeys = new ConcurrentLinkedQueue<>();
+    private DataOutputStream recordStream;
+    // closes the record file when the JVM exits without going through Game.close (window closed, Ctrl+C).
+    private Thread closeHook;
+    private DataInputStream replayStream;
+    private long seed;
+    private double stepRate;
+    private long frame = 0;
+
     public Input(Game g) {
         this.game = g;
     }
 
     @Override
     public void keyTyped(KeyEvent e) {
-        if (Optional.ofNullable(game).isPresent()) {
-            game.keyTyped(e);
+        switch (mode) {
+            case LIVE -> {
+                if (Optional.ofNullable(game).isPresent()) {
+                    game.keyTyped(e);
+                }
+            }
+            // typed keys are processed at the next frame start to be recorded.
+            case RECORD -> typedKeys.add(e.getKeyChar());
+            // the keyboard is ignored during replay.
+            case REPLAY -> {
+            }
         }
     }
 
@@ -40,7 +95,173 @@ public class Input implements KeyListener {
     }
 
     public boolean getKey(int code) {
-        return (events.containsKey(code));
+        if (mode == Mode.LIVE) {
+            return (events.containsKey(code));
+        }
+        return frameKeys.get(code);
+    }
+
+    /**
+     * Start recording the key states of each frame into a file.
+     *
+     * @param filePath the record file path.
+     * @param seed     the random seed used by the recorded session.
+     * @param stepRate the physic step rate used by the recorded session.
+     */
+    public void startRecording(String filePath, long seed, double stepRate) {
+        try {
+            recordStream = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(filePath)));
+            recordStream.writeInt(MAGIC);
+            recordStream.writeShort(VERSION);
+            recordStream.writeLong(seed);
+            recordStream.writeDouble(stepRate);
+            this.seed = seed;
+            this.stepRate = stepRate;
+            this.mode = Mode.RECORD;
+            if (!Optional.ofNullable(closeHook).isPresent()) {
+                closeHook = new Thread(this::stop, "input-record-close");
+                Runtime.getRuntime().addShutdownHook(closeHook);
+            }
+            System.out.printf("INFO : Input | Record input to %s (seed=%d)%n", filePath, seed);
+        } catch (IOException e) {
+            System.err.printf("ERR : Input | Unable to record input to %s: %s%n", filePath, e.getMessage());
+        }
     }
 
-}
\ No newline at end of file
+    /**
+     * Start replaying a record file in place of the keyboard.
+     *
+     * @param filePath the record file path.
+     * @return true if the record file has been opened.
+     */
+    public boolean startReplay(String filePath) {
+        try {
+            replayStream = new DataInputStream(new BufferedInputStream(new FileInputStream(filePath)));
+            if (replayStream.readInt() != MAGIC || replayStream.readShort() != VERSION) {
+                System.err.printf("ERR : Input | %s is not an input record file%n", filePath);
+                replayStream.close();
+                return false;
+            }
+            this.seed = replayStream.readLong();
+            this.stepRate = replayStream.readDouble();
+            this.mode = Mode.REPLAY;
+            System.out.printf("INFO : Input | Replay input from %s (seed=%d)%n", filePath, seed);
+            return true;
+        } catch (IOException e) {
+            System.err.printf("ERR : Input | Unable to replay input from %s: %s%n", filePath, e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Start a new frame: in record mode, the current key states are captured and written,
+     * in replay mode, the key states are read from the record file. In both cases, typed
+     * keys are forwarded to the game at this point.
+     */
+    public synchronized void nextFrame() {
+        switch (mode) {
+            case RECORD -> recordFrame();
+            case REPLAY -> replayFrame();
+            case LIVE -> {
+            }
+        }
+        frame++;
+    }
+
+    private void recordFrame() {
+        frameKeys.clear();
+        events.keySet().forEach(frameKeys::set);
+        try {
+            if (frameKeys.equals(previousFrameKeys)) {
+                recordStream.writeByte(SAME_KEYS);
+            } else {
+                int nbKeys = Math.min(frameKeys.cardinality(), SAME_KEYS - 1);
+                recordStream.writeByte(nbKeys);
+                for (int k = frameKeys.nextSetBit(0), i = 0; k >= 0 && i < nbKeys; k = frameKeys.nextSetBit(k + 1), i++) {
+                    recordStream.writeShort(k);
+                }
+                previousFrameKeys.clear();
+                previousFrameKeys.or(frameKeys);
+            }
+            int nbTyped = Math.min(typedKeys.size(), SAME_KEYS);
+            recordStream.writeByte(nbTyped);
+            for (int i = 0; i < nbTyped; i++) {
+                char c = typedKeys.poll();
+                recordStream.writeChar(c);
+                dispatchTypedKey(c);
+            }
+        } catch (IOException e) {
+            System.err.printf("ERR : Input | Unable to record frame %d: %s%n", frame, e.getMessage());
+            stop();
+        }
+    }
+
+    private void replayFrame() {
+        try {
+            int nbKeys = replayStream.readUnsignedByte();
+            if (nbKeys != SAME_KEYS) {
+                frameKeys.clear();
+                for (int i = 0; i < nbKeys; i++) {
+                    frameKeys.set(replayStream.readUnsignedShort());
+                }
+            }
+            int nbTyped = replayStream.readUnsignedByte();
+            for (int i = 0; i < nbTyped; i++) {
+                dispatchTypedKey(replayStream.readChar());
+            }
+        } catch (EOFException e) {
+            System.out.printf("INFO : Input | End of replay after %d frames%n", frame);
+            stop();
+            game.requestExit(true);
+        } catch (IOException e) {
+            System.err.printf("ERR : Input | Unable to replay frame %d: %s%n", frame, e.getMessage());
+            stop();
+        }
+    }
+
+    private void dispatchTypedKey(char c) {
+        if (Optional.ofNullable(game).isPresent()) {
+            game.keyTyped(new KeyEvent(game, KeyEvent.KEY_TYPED, 0, 0, KeyEvent.VK_UNDEFINED, c));
+        }
+    }
+
+    /**
+     * Stop recording or replaying, and go back to live mode. The record file is flushed and closed.
+     */
+    public synchronized void stop() {
+        if (Optional.ofNullable(closeHook).isPresent() && Thread.currentThread() != closeHook) {
+            try {
+                Runtime.getRuntime().removeShutdownHook(closeHook);
+            } catch (IllegalStateException e) {
+                // the JVM is already shutting down: the hook has been started.
+            }
+            closeHook = null;
+        }
+        try {
+            if (Optional.ofNullable(recordStream).isPresent()) {
+                recordStream.close();
+            }
+            if (Optional.ofNullable(replayStream).isPresent()) {
+                replayStream.close();
+            }
+        } catch (IOException e) {
+            System.err.printf("ERR : Input | Unable to close record file: %s%n", e.getMessage());
+        }
+        recordStream = null;
+        replayStream = null;
+        frameKeys.clear();
+        mode = Mode.LIVE;
+    }
+
+    public Mode getMode() {
+        return mode;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    public double getStepRate() {
+        return stepRate;
+    }
+}
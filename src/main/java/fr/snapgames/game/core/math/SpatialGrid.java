@@ -0,0 +1,164 @@
+package fr.snapgames.game.core.math;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * A uniform grid spatial hash: each item is registered into all the cells its
+ * bounding box overlaps, and a query only visits the cells covered by the
+ * requested area.
+ * <p>
+ * An item overlapping several cells of a query area is reported only once,
+ * from the first cell (top-left) shared by the item and the area, so that
+ * no deduplication set is needed and queries do not allocate.
+ * Items outside the grid area are clamped into the border cells.
+ *
+ * @param <T> the type of the indexed items.
+ * @author Frédéric Delorme
+ * @since 1.0.1
+ */
+public class SpatialGrid<T> {
+
+    /**
+     * An item registered in the grid with its cells range.
+     */
+    private static class Entry<T> {
+        T item;
+        int minCol, minRow, maxCol, maxRow;
+    }
+
+    private final double cellSize;
+    private final int cols;
+    private final int rows;
+    private final List<Entry<T>>[] cells;
+    private final Map<T, Entry<T>> entries = new IdentityHashMap<>();
+
+    /**
+     * Create a new grid covering the area (0,0)-(width,height).
+     *
+     * @param width    width of the covered area.
+     * @param height   height of the covered area.
+     * @param cellSize size of a square cell.
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public SpatialGrid(double width, double height, double cellSize) {
+        this.cellSize = cellSize;
+        this.cols = Math.max(1, (int) Math.ceil(width / cellSize));
+        this.rows = Math.max(1, (int) Math.ceil(height / cellSize));
+        this.cells = new List[cols * rows];
+        for (int i = 0; i < cells.length; i++) {
+            cells[i] = new ArrayList<>();
+        }
+    }
+
+    /**
+     * Add an item, or move it if it is already in the grid.
+     *
+     * @param item the item to be indexed.
+     * @param x    left of the item bounding box.
+     * @param y    top of the item bounding box.
+     * @param w    width of the item bounding box.
+     * @param h    height of the item bounding box.
+     */
+    public void put(T item, double x, double y, double w, double h) {
+        Entry<T> e = entries.get(item);
+        int minCol = col(x), minRow = row(y), maxCol = col(x + w), maxRow = row(y + h);
+        if (Optional.ofNullable(e).isPresent()) {
+            if (e.minCol == minCol && e.minRow == minRow && e.maxCol == maxCol && e.maxRow == maxRow) {
+                return;
+            }
+            unlink(e);
+        } else {
+            e = new Entry<>();
+            e.item = item;
+            entries.put(item, e);
+        }
+        e.minCol = minCol;
+        e.minRow = minRow;
+        e.maxCol = maxCol;
+        e.maxRow = maxRow;
+        for (int r = minRow; r <= maxRow; r++) {
+            for (int c = minCol; c <= maxCol; c++) {
+                cells[r * cols + c].add(e);
+            }
+        }
+    }
+
+    /**
+     * Remove an item from the grid.
+     *
+     * @param item the item to be removed.
+     */
+    public void remove(T item) {
+        Entry<T> e = entries.remove(item);
+        if (Optional.ofNullable(e).isPresent()) {
+            unlink(e);
+        }
+    }
+
+    /**
+     * Remove all the items from the grid.
+     */
+    public void clear() {
+        for (List<Entry<T>> cell : cells) {
+            cell.clear();
+        }
+        entries.clear();
+    }
+
+    private void unlink(Entry<T> e) {
+        for (int r = e.minRow; r <= e.maxRow; r++) {
+            for (int c = e.minCol; c <= e.maxCol; c++) {
+                cells[r * cols + c].remove(e);
+            }
+        }
+    }
+
+    /**
+     * Collect the items registered in the cells covered by the area. The returned items
+     * are candidates: their bounding box is not tested against the area.
+     *
+     * @param x      left of the area.
+     * @param y      top of the area.
+     * @param w      width of the area.
+     * @param h      height of the area.
+     * @param result the list receiving the candidates (cleared first).
+     * @return the result list.
+     */
+    public List<T> query(double x, double y, double w, double h, List<T> result) {
+        result.clear();
+        int minCol = col(x), minRow = row(y), maxCol = col(x + w), maxRow = row(y + h);
+        for (int r = minRow; r <= maxRow; r++) {
+            for (int c = minCol; c <= maxCol; c++) {
+                List<Entry<T>> cell = cells[r * cols + c];
+                for (int i = 0; i < cell.size(); i++) {
+                    Entry<T> e = cell.get(i);
+                    // report the item only from its first cell inside the query area.
+                    if (c == Math.max(e.minCol, minCol) && r == Math.max(e.minRow, minRow)) {
+                        result.add(e.item);
+                    }
+                }
+            }
+        }
+        return result;
+    }
+
+    private int col(double x) {
+        return Math.max(0, Math.min(cols - 1, (int) Math.floor(x / cellSize)));
+    }
+
+    private int row(double y) {
+        return Math.max(0, Math.min(rows - 1, (int) Math.floor(y / cellSize)));
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public double getCellSize() {
+        return cellSize;
+    }
+}
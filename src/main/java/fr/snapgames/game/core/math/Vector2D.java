@@ -73,11 +73,79 @@ public class Vector2D {
     }
 
     public Vector2D addAll(List<Vector2D> forces) {
-        Vector2D sum = new Vector2D();
-        for (Vector2D f : forces) {
-            sum = sum.add(f);
+        double sx = 0.0, sy = 0.0;
+        for (int i = 0; i < forces.size(); i++) {
+            sx += forces.get(i).x;
+            sy += forces.get(i).y;
         }
-        return sum;
+        return new Vector2D(sx, sy);
+    }
+
+    /*
+     * In-place operations: the following methods update this vector and return it,
+     * without any allocation.
+     */
+
+    public Vector2D set(double x, double y) {
+        this.x = x;
+        this.y = y;
+        return this;
+    }
+
+    public Vector2D set(Vector2D v) {
+        this.x = v.x;
+        this.y = v.y;
+        return this;
+    }
+
+    public Vector2D zero() {
+        return set(0.0, 0.0);
+    }
+
+    public Vector2D addLocal(Vector2D v) {
+        this.x += v.x;
+        this.y += v.y;
+        return this;
+    }
+
+    public Vector2D addLocal(double dx, double dy) {
+        this.x += dx;
+        this.y += dy;
+        return this;
+    }
+
+    /**
+     * Add the vector <code>v</code> scaled by <code>f</code> to this vector.
+     *
+     * @param v the vector to be added.
+     * @param f the scale factor applied to v.
+     * @return this updated vector.
+     */
+    public Vector2D addScaledLocal(Vector2D v, double f) {
+        this.x += v.x * f;
+        this.y += v.y * f;
+        return this;
+    }
+
+    public Vector2D subLocal(Vector2D v) {
+        this.x -= v.x;
+        this.y -= v.y;
+        return this;
+    }
+
+    public Vector2D scaleLocal(double f) {
+        this.x *= f;
+        this.y *= f;
+        return this;
+    }
+
+    public Vector2D negateLocal() {
+        return scaleLocal(-1.0);
+    }
+
+    public Vector2D normalizeLocal() {
+        double l = length();
+        return l != 0.0 ? scaleLocal(1.0 / l) : this;
     }
 
     public String toString() {
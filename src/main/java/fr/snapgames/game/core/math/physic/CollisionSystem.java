@@ -0,0 +1,303 @@
+package fr.snapgames.game.core.math.physic;
+
+import fr.snapgames.game.core.entity.Entity;
+import fr.snapgames.game.core.entity.EntityType;
+import fr.snapgames.game.core.entity.GameEntity;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The {@link CollisionSystem} detects and resolves the collisions between entities.
+ * <ul>
+ * <li>broad phase: sweep and prune, the bodies are kept sorted along the X axis from one
+ * frame to the next one, so that the insertion sort runs in almost linear time,
+ * and only bodies overlapping on the X then Y axis become candidate pairs,</li>
+ * <li>narrow phase: AABB and circle tests according to the {@link EntityType},</li>
+ * <li>resolution: impulses using the {@link Material} elasticity (restitution) and friction,
+ * plus a positional correction to remove the penetration.</li>
+ * </ul>
+ * {@link Influencer}s and entities sticking to the camera never collide.
+ * A Material friction is a velocity factor (1.0 = no friction), so the Coulomb friction
+ * coefficient used at contact is <code>1 - friction</code>.
+ *
+ * @author Frédéric Delorme
+ * @since 1.0.1
+ */
+public class CollisionSystem {
+
+    // ratio of the penetration corrected on each step and penetration allowed without correction.
+    private static final double CORRECTION_PERCENT = 0.8;
+    private static final double CORRECTION_SLOP = 0.01;
+
+    private GameEntity[] bodies = new GameEntity[0];
+    private int count = 0;
+    private double[] minX = new double[0];
+    private final Map<GameEntity, Boolean> members = new IdentityHashMap<>();
+    private GameEntity[] current = new GameEntity[0];
+
+    private final List<Contact> contactPool = new ArrayList<>();
+    private final List<Contact> contacts = new ArrayList<>();
+    private final List<Contact> readOnlyContacts = Collections.unmodifiableList(contacts);
+    // relative normal speed above which a contact wakes the sleeping bodies up.
+    private double wakeSpeed = 0.0;
+
+    /**
+     * Detect and resolve all the collisions between the entities.
+     *
+     * @param entities the entities to be processed.
+     */
+    public void update(List<Entity> entities) {
+        collectBodies(entities);
+        sortBodies();
+        contacts.clear();
+        for (int i = 0; i < count; i++) {
+            GameEntity a = bodies[i];
+            double maxX = a.position.x + a.size.x;
+            for (int j = i + 1; j < count && minX[j] <= maxX; j++) {
+                GameEntity b = bodies[j];
+                if (a.sleeping && b.sleeping) {
+                    continue;
+                }
+                if (a.position.y <= b.position.y + b.size.y && b.position.y <= a.position.y + a.size.y) {
+                    Contact c = narrowPhase(a, b);
+                    if (c != null) {
+                        resolve(c);
+                    }
+                }
+            }
+        }
+        for (int i = 0; i < contacts.size(); i++) {
+            contacts.get(i).a.updateBox();
+            contacts.get(i).b.updateBox();
+        }
+    }
+
+    /**
+     * Retrieve the contacts detected during the last update. The contact instances are
+     * reused from one update to the next one.
+     *
+     * @return the list of contacts.
+     */
+    public List<Contact> getContacts() {
+        return readOnlyContacts;
+    }
+
+    /**
+     * Define the relative normal speed above which a contact wakes the sleeping bodies up.
+     *
+     * @param speed the wake up speed.
+     * @return this CollisionSystem.
+     */
+    public CollisionSystem setWakeSpeed(double speed) {
+        this.wakeSpeed = speed;
+        return this;
+    }
+
+    private void collectBodies(List<Entity> entities) {
+        if (current.length < entities.size()) {
+            current = new GameEntity[entities.size()];
+        }
+        int n = 0;
+        boolean changed = false;
+        for (int i = 0; i < entities.size(); i++) {
+            if (entities.get(i) instanceof GameEntity ge && !(ge instanceof Influencer) && !ge.isStickToCamera()) {
+                current[n++] = ge;
+                changed = changed || !members.containsKey(ge);
+            }
+        }
+        if (changed || n != count) {
+            // the body set has changed: restart from the current entities list.
+            members.clear();
+            if (bodies.length < n) {
+                bodies = new GameEntity[current.length];
+                minX = new double[current.length];
+            }
+            for (int i = 0; i < n; i++) {
+                bodies[i] = current[i];
+                members.put(current[i], Boolean.TRUE);
+            }
+            Arrays.fill(bodies, n, count > n ? count : n, null);
+            count = n;
+        }
+    }
+
+    /**
+     * Insertion sort on the left bound: nearly linear as bodies keep their order between frames.
+     */
+    private void sortBodies() {
+        for (int i = 0; i < count; i++) {
+            minX[i] = bodies[i].position.x;
+        }
+        for (int i = 1; i < count; i++) {
+            GameEntity b = bodies[i];
+            double x = minX[i];
+            int j = i - 1;
+            while (j >= 0 && minX[j] > x) {
+                bodies[j + 1] = bodies[j];
+                minX[j + 1] = minX[j];
+                j--;
+            }
+            bodies[j + 1] = b;
+            minX[j + 1] = x;
+        }
+    }
+
+    private Contact narrowPhase(GameEntity a, GameEntity b) {
+        boolean circleA = a.type == EntityType.CIRCLE;
+        boolean circleB = b.type == EntityType.CIRCLE;
+        if (circleA && circleB) {
+            return circleVsCircle(a, b);
+        } else if (circleA) {
+            return circleVsBox(a, b, false);
+        } else if (circleB) {
+            return circleVsBox(b, a, true);
+        }
+        return boxVsBox(a, b);
+    }
+
+    private Contact boxVsBox(GameEntity a, GameEntity b) {
+        double dx = (b.position.x + b.size.x * 0.5) - (a.position.x + a.size.x * 0.5);
+        double dy = (b.position.y + b.size.y * 0.5) - (a.position.y + a.size.y * 0.5);
+        double overlapX = (a.size.x + b.size.x) * 0.5 - Math.abs(dx);
+        double overlapY = (a.size.y + b.size.y) * 0.5 - Math.abs(dy);
+        if (overlapX <= 0 || overlapY <= 0) {
+            return null;
+        }
+        if (overlapX < overlapY) {
+            return addContact(a, b, dx < 0 ? -1 : 1, 0, overlapX);
+        }
+        return addContact(a, b, 0, dy < 0 ? -1 : 1, overlapY);
+    }
+
+    private Contact circleVsCircle(GameEntity a, GameEntity b) {
+        double ra = a.size.x * 0.5;
+        double rb = b.size.x * 0.5;
+        double dx = (b.position.x + rb) - (a.position.x + ra);
+        double dy = (b.position.y + rb) - (a.position.y + ra);
+        double d2 = dx * dx + dy * dy;
+        double r = ra + rb;
+        if (d2 >= r * r) {
+            return null;
+        }
+        double d = Math.sqrt(d2);
+        if (d == 0) {
+            return addContact(a, b, 1, 0, r);
+        }
+        return addContact(a, b, dx / d, dy / d, r - d);
+    }
+
+    /**
+     * Circle against box test, the normal going from the circle to the box,
+     * or reversed when <code>swap</code> is true to keep the (a,b) order of the pair.
+     */
+    private Contact circleVsBox(GameEntity circle, GameEntity box, boolean swap) {
+        double r = circle.size.x * 0.5;
+        double cx = circle.position.x + r;
+        double cy = circle.position.y + r;
+        // closest point of the box to the circle center.
+        double px = Math.max(box.position.x, Math.min(cx, box.position.x + box.size.x));
+        double py = Math.max(box.position.y, Math.min(cy, box.position.y + box.size.y));
+        double dx = px - cx;
+        double dy = py - cy;
+        double d2 = dx * dx + dy * dy;
+        if (d2 >= r * r) {
+            return null;
+        }
+        double nx, ny, penetration;
+        if (d2 == 0) {
+            // circle center inside the box: push along the box center direction.
+            double bx = box.position.x + box.size.x * 0.5 - cx;
+            double by = box.position.y + box.size.y * 0.5 - cy;
+            if (Math.abs(bx) > Math.abs(by)) {
+                nx = Math.signum(bx);
+                ny = 0;
+            } else {
+                nx = 0;
+                ny = by == 0 ? 1 : Math.signum(by);
+            }
+            penetration = r;
+        } else {
+            double d = Math.sqrt(d2);
+            nx = dx / d;
+            ny = dy / d;
+            penetration = r - d;
+        }
+        return swap ? addContact(box, circle, -nx, -ny, penetration) : addContact(circle, box, nx, ny, penetration);
+    }
+
+    private Contact addContact(GameEntity a, GameEntity b, double nx, double ny, double penetration) {
+        if (contactPool.size() <= contacts.size()) {
+            contactPool.add(new Contact());
+        }
+        Contact c = contactPool.get(contacts.size()).set(a, b, nx, ny, penetration);
+        contacts.add(c);
+        return c;
+    }
+
+    private void resolve(Contact c) {
+        GameEntity a = c.a;
+        GameEntity b = c.b;
+        // relative velocity along the normal
+        double rvx = b.speed.x - a.speed.x;
+        double rvy = b.speed.y - a.speed.y;
+        double vn = rvx * c.nx + rvy * c.ny;
+        if (vn < 0 && (a.sleeping || b.sleeping) && -vn > wakeSpeed) {
+            a.wakeUp();
+            b.wakeUp();
+        }
+        // a body still sleeping acts as a static one: its state is left untouched.
+        double invA = a.mass > 0 && !a.sleeping ? 1.0 / a.mass : 0.0;
+        double invB = b.mass > 0 && !b.sleeping ? 1.0 / b.mass : 0.0;
+        double invSum = invA + invB;
+        if (invSum == 0) {
+            return;
+        }
+        if (vn < 0) {
+            double restitution = Math.min(elasticity(a), elasticity(b));
+            double j = -(1.0 + restitution) * vn / invSum;
+            applyImpulse(a, b, c.nx * j, c.ny * j, invA, invB);
+
+            // friction along the tangent
+            rvx = b.speed.x - a.speed.x;
+            rvy = b.speed.y - a.speed.y;
+            vn = rvx * c.nx + rvy * c.ny;
+            double tx = rvx - vn * c.nx;
+            double ty = rvy - vn * c.ny;
+            double tl = Math.sqrt(tx * tx + ty * ty);
+            if (tl > 0) {
+                tx /= tl;
+                ty /= tl;
+                double mu = Math.sqrt(frictionCoef(a) * frictionCoef(b));
+                double jt = -(rvx * tx + rvy * ty) / invSum;
+                jt = Math.max(-j * mu, Math.min(jt, j * mu));
+                applyImpulse(a, b, tx * jt, ty * jt, invA, invB);
+            }
+        }
+        // positional correction
+        double correction = Math.max(c.penetration - CORRECTION_SLOP, 0.0) / invSum * CORRECTION_PERCENT;
+        a.position.x -= c.nx * correction * invA;
+        a.position.y -= c.ny * correction * invA;
+        b.position.x += c.nx * correction * invB;
+        b.position.y += c.ny * correction * invB;
+    }
+
+    private void applyImpulse(GameEntity a, GameEntity b, double ix, double iy, double invA, double invB) {
+        a.speed.x -= ix * invA;
+        a.speed.y -= iy * invA;
+        b.speed.x += ix * invB;
+        b.speed.y += iy * invB;
+    }
+
+    private double elasticity(GameEntity e) {
+        return e.material != null ? e.material.elasticity : 1.0;
+    }
+
+    private double frictionCoef(GameEntity e) {
+        return e.material != null ? Math.max(0.0, 1.0 - e.material.friction) : 0.0;
+    }
+}
@@ -0,0 +1,31 @@
+package fr.snapgames.game.core.math.physic;
+
+import fr.snapgames.game.core.entity.GameEntity;
+
+/**
+ * A contact between 2 entities detected by the {@link CollisionSystem}.
+ * The normal goes from <code>a</code> to <code>b</code>.
+ *
+ * @author Frédéric Delorme
+ * @since 1.0.1
+ */
+public class Contact {
+    public GameEntity a;
+    public GameEntity b;
+    public double nx;
+    public double ny;
+    public double penetration;
+
+    Contact set(GameEntity a, GameEntity b, double nx, double ny, double penetration) {
+        this.a = a;
+        this.b = b;
+        this.nx = nx;
+        this.ny = ny;
+        this.penetration = penetration;
+        return this;
+    }
+
+    public String toString() {
+        return String.format("contact{%s,%s,n:{%04.2f,%04.2f},p:%04.2f}", a.name, b.name, nx, ny, penetration);
+    }
+}
@@ -0,0 +1,116 @@
+package fr.snapgames.game.core.math.physic;
+
+import fr.snapgames.game.core.math.Vector2D;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A field grid baking the effects of the static {@link Influencer}s over the play area:
+ * each cell stores the sum of the forces (including the gravity of the influencers' own
+ * {@link World}) and the {@link Material} applied by the influencers covering the cell center.
+ * <p>
+ * The field is baked once from the influencers list, and the effect on an entity is then a
+ * single array lookup on the cell of its center, instead of a walk on the colliding influencers.
+ * The precision is the cell size: an influencer not covering any cell center has no effect, and an
+ * entity only partly overlapping an influencer is not affected if its center is out of it. There is no
+ * swept lookup either, so the {@link PhysicEngine} only uses the field when the continuous collision
+ * detection is off.
+ *
+ * @author Frédéric Delorme
+ * @since 1.0.1
+ */
+public class InfluenceField {
+
+    private final double cellSize;
+    private final int cols;
+    private final int rows;
+
+    public final double[] forceX;
+    public final double[] forceY;
+    public final Material[] material;
+
+    /**
+     * Create a new field covering the area (0,0)-(width,height).
+     *
+     * @param width    width of the covered area.
+     * @param height   height of the covered area.
+     * @param cellSize size of a square cell.
+     */
+    public InfluenceField(double width, double height, double cellSize) {
+        this.cellSize = cellSize;
+        this.cols = Math.max(1, (int) Math.ceil(width / cellSize));
+        this.rows = Math.max(1, (int) Math.ceil(height / cellSize));
+        this.forceX = new double[cols * rows];
+        this.forceY = new double[cols * rows];
+        this.material = new Material[cols * rows];
+    }
+
+    /**
+     * Bake the effects of the influencers into the cells. The influencers are applied in the
+     * list order, so that the material of the last one covering a cell wins.
+     *
+     * @param influencers the influencers to be baked.
+     */
+    public void bake(List<Influencer> influencers) {
+        Arrays.fill(forceX, 0.0);
+        Arrays.fill(forceY, 0.0);
+        Arrays.fill(material, null);
+        for (int n = 0; n < influencers.size(); n++) {
+            Influencer i = influencers.get(n);
+            double fx = 0.0;
+            double fy = 0.0;
+            for (int f = 0; f < i.forces.size(); f++) {
+                Vector2D force = i.forces.get(f);
+                fx += force.x;
+                fy += force.y;
+            }
+            Material m = i.material;
+            World iWorld = i.getWorld();
+            if (iWorld != null) {
+                if (iWorld.getMaterial() != null) {
+                    m = iWorld.getMaterial();
+                }
+                if (iWorld.getGravity() != null) {
+                    fx += iWorld.getGravity().x;
+                    fy += iWorld.getGravity().y;
+                }
+            }
+            // cells whose center is inside the influencer box.
+            int minCol = Math.max(0, (int) Math.ceil(i.position.x / cellSize - 0.5));
+            int maxCol = Math.min(cols - 1, (int) Math.floor((i.position.x + i.size.x) / cellSize - 0.5));
+            int minRow = Math.max(0, (int) Math.ceil(i.position.y / cellSize - 0.5));
+            int maxRow = Math.min(rows - 1, (int) Math.floor((i.position.y + i.size.y) / cellSize - 0.5));
+            for (int r = minRow; r <= maxRow; r++) {
+                for (int c = minCol; c <= maxCol; c++) {
+                    int cell = r * cols + c;
+                    forceX[cell] += fx;
+                    forceY[cell] += fy;
+                    if (m != null) {
+                        material[cell] = m;
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Retrieve the cell index at a position.
+     *
+     * @param x the X position.
+     * @param y the Y position.
+     * @return the cell index, or -1 if the position is out of the field.
+     */
+    public int cell(double x, double y) {
+        int c = (int) Math.floor(x / cellSize);
+        int r = (int) Math.floor(y / cellSize);
+        if (c < 0 || r < 0 || c >= cols || r >= rows) {
+            return -1;
+        }
+        return r * cols + c;
+    }
+
+    public double getCellSize() {
+        return cellSize;
+    }
+}
@@ -1,14 +1,21 @@
 package fr.snapgames.game.core.math.physic;
 
 import fr.snapgames.game.Game;
+import fr.snapgames.game.core.behavior.BehaviorScheduler;
 import fr.snapgames.game.core.config.Configuration;
+import fr.snapgames.game.core.entity.AttributeKey;
+import fr.snapgames.game.core.entity.CameraEntity;
+import fr.snapgames.game.core.entity.Entity;
 import fr.snapgames.game.core.entity.GameEntity;
-import fr.snapgames.game.core.behavior.Behavior;
 import fr.snapgames.game.core.math.Vector2D;
+import fr.snapgames.game.core.service.EntityView;
+import fr.snapgames.game.core.utils.FrameProfiler;
 
 import java.awt.*;
-import java.util.Collection;
-import java.util.Optional;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 
 /**
  * The {@link PhysicEngine} is only the place where entities ({@link GameEntity}
@@ -18,11 +25,109 @@ import java.util.Optional;
  * @since 0.0.1
  */
 public class PhysicEngine {
+    /**
+     * Number of sub-steps forced for an entity, overriding the global sub-stepping configuration.
+     */
+    public static final AttributeKey<Integer> SUBSTEPS = AttributeKey.ofInt("substeps");
+
 
     World world;
+    CollisionSystem collisionSystem;
+    /**
+     * Structure-of-arrays storage used by the batched integrator, if activated.
+     */
+    PhysicStore store;
+    /**
+     * The entities moved by the physic: all the {@link GameEntity} except the {@link Influencer}s.
+     */
+    private final EntityView<Entity> bodyView;
+    /**
+     * The entities whose behaviors are updated: all except the {@link Influencer}s.
+     */
+    private final EntityView<Entity> actorView;
+    /**
+     * Runs the behaviors of the actors, batched by behavior class.
+     */
+    private final BehaviorScheduler behaviorScheduler;
+    /**
+     * Pool used to integrate the entities in parallel, if activated.
+     */
+    ForkJoinPool pool;
+    /**
+     * SIMD integration of the batched store, if activated and the Vector API is available.
+     */
+    StoreIntegrator vectorIntegrator;
+    int parallelThreshold;
+    /**
+     * Sleep tracking: an entity whose speed stays below sleepSpeed during sleepFrames steps falls asleep.
+     */
+    boolean sleepEnabled;
+    double sleepSpeed;
+    int sleepFrames;
+    /**
+     * Continuous collision detection against the play area bounds and the influencer volumes.
+     */
+    boolean ccdEnabled;
+    /**
+     * Sub-stepping: number of sub-steps for all bodies, or 0 to compute it for each body from
+     * the distance it moves during the step, up to a maximum.
+     */
+    boolean substepEnabled;
+    int substepCount;
+    double substepDistance;
+    int substepMax;
+    // the influence field of the current step, if activated.
+    private InfluenceField field;
+    // influencer lookup buffers of each worker thread.
+    private final ThreadLocal<InfluencerBuffers> buffers = ThreadLocal.withInitial(InfluencerBuffers::new);
+
+    /**
+     * Buffers used by one thread to retrieve the influencers colliding with an entity.
+     */
+    private static class InfluencerBuffers {
+        final List<Influencer> candidates = new ArrayList<>();
+        final List<Influencer> colliding = new ArrayList<>();
+    }
+
+    /**
+     * An action on the range [from, to) of the entities.
+     */
+    private interface RangeAction {
+        void run(int from, int to);
+    }
+
+    /**
+     * Fork/join task splitting a range in 2 halves until it is smaller than the chunk size.
+     */
+    private static class RangeTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+        private final int from, to, chunk;
+        private final transient RangeAction action;
+
+        RangeTask(int from, int to, int chunk, RangeAction action) {
+            this.from = from;
+            this.to = to;
+            this.chunk = chunk;
+            this.action = action;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= chunk) {
+                action.run(from, to);
+            } else {
+                int mid = (from + to) >>> 1;
+                invokeAll(new RangeTask(from, mid, chunk, action), new RangeTask(mid, to, chunk, action));
+            }
+        }
+    }
 
     public PhysicEngine(Game g) {
         Configuration config = g.getConfiguration();
+        // live views, maintained by the EntityManager: no per-frame type filtering.
+        bodyView = g.getEntityManager().query("physic.bodies",
+                e -> e instanceof GameEntity && !(e instanceof Influencer));
+        actorView = g.getEntityManager().query("physic.actors", e -> !(e instanceof Influencer));
         int playAreaWidth = config.getInteger("game.world.width", 800);
         int playAreaHeight = config.getInteger("game.world.height", 800);
         world = new World(
@@ -31,6 +136,54 @@ public class PhysicEngine {
         Material worldMat = config.getMaterial("game.world.material",
                 new Material("defaultWorldMaterial", 1.0, 1.0, 1.0));
         world.setMaterial(worldMat);
+        world.setGridCellSize(config.getDouble("game.world.grid.cell", 64.0));
+        if (config.getBoolean("game.physic.collision.enabled", false)) {
+            collisionSystem = new CollisionSystem();
+        }
+        if (config.getBoolean("game.physic.batch.enabled", false)) {
+            store = new PhysicStore();
+            if (config.getBoolean("game.physic.simd.enabled", false)) {
+                if (isVectorApiAvailable()) {
+                    vectorIntegrator = loadVectorIntegrator();
+                    if (vectorIntegrator != null) {
+                        System.out.printf("INFO : PhysicEngine | SIMD integration on %d lanes%n",
+                                vectorIntegrator.getLanes());
+                    }
+                } else {
+                    System.err.printf("ERR : PhysicEngine | SIMD integration needs the JVM option "
+                            + "'--add-modules jdk.incubator.vector': scalar integration is used%n");
+                }
+            }
+        }
+        ccdEnabled = config.getBoolean("game.physic.ccd.enabled", false);
+        if (config.getBoolean("game.world.field.enabled", false)) {
+            if (ccdEnabled) {
+                // the field is sampled at the entity center: it has no swept, time-weighted lookup.
+                System.out.println("WARN : PhysicEngine | game.world.field.enabled is ignored when game.physic.ccd.enabled is set");
+            } else {
+                world.setFieldCellSize(config.getDouble("game.world.field.cell", 16.0));
+            }
+        }
+        substepEnabled = config.getBoolean("game.physic.substep.enabled", false);
+        substepCount = config.getInteger("game.physic.substep.count", 0);
+        substepDistance = config.getDouble("game.physic.substep.distance", 4.0);
+        substepMax = config.getInteger("game.physic.substep.max", 8);
+        sleepEnabled = config.getBoolean("game.physic.sleep.enabled", false);
+        sleepSpeed = config.getDouble("game.physic.sleep.speed", 2.0);
+        sleepFrames = config.getInteger("game.physic.sleep.frames", 30);
+        if (collisionSystem != null && sleepEnabled) {
+            collisionSystem.setWakeSpeed(sleepSpeed);
+        }
+        if (config.getBoolean("game.physic.parallel.enabled", false)) {
+            int threads = config.getInteger("game.physic.parallel.threads", 0);
+            pool = new ForkJoinPool(threads > 0 ? threads : Runtime.getRuntime().availableProcessors());
+            parallelThreshold = config.getInteger("game.physic.parallel.threshold", 2000);
+            System.out.printf("INFO : PhysicEngine | Parallel integration on %d threads above %d entities%n",
+                    pool.getParallelism(), parallelThreshold);
+        }
+        behaviorScheduler = new BehaviorScheduler(g.getEntityManager(), actorView)
+                .setParallel(pool, config.getInteger("game.behavior.parallel.threshold", 1000))
+                .setLod(config);
     }
 
     public PhysicEngine setWorld(World w) {
@@ -39,73 +192,467 @@ public class PhysicEngine {
     }
 
     public void update(Game g, double elapsed) {
-        g.getEntities().values().stream()
-                .filter(e -> !(e instanceof Influencer))
-                .forEach(e -> {
-                    updateEntity(g, (GameEntity) e, elapsed);
-                    constrainEntityToWorld(world, (GameEntity) e);
-                });
-        if (Optional.ofNullable(g.getCurrentCamera()).isPresent()) {
-            for (Behavior b : g.getCurrentCamera().behaviors) {
-                b.update(g, g.getCurrentCamera(), elapsed);
+        FrameProfiler profiler = g.getProfiler();
+        List<Entity> entities = g.getEntityList();
+        long start = profiler.start();
+        // bake the influencers effects before any (possibly parallel) integration.
+        field = world.getField();
+        if (store != null) {
+            integrateBatch(bodyView, elapsed);
+        } else if (pool != null && bodyView.size() >= parallelThreshold) {
+            integrateParallel(bodyView, elapsed);
+        } else {
+            for (int i = 0; i < bodyView.size(); i++) {
+                GameEntity e = (GameEntity) bodyView.get(i);
+                integrateEntity(g, e, elapsed);
+                constrainEntityToWorld(world, e);
+                updateRestState(e);
             }
         }
+        if (collisionSystem != null) {
+            collisionSystem.update(entities);
+            // the positional correction may have pushed a body out of the play area.
+            List<Contact> contacts = collisionSystem.getContacts();
+            for (int i = 0; i < contacts.size(); i++) {
+                clampEntityToWorld(world, contacts.get(i).a);
+                clampEntityToWorld(world, contacts.get(i).b);
+            }
+        }
+        updateTransforms(entities);
+        profiler.record(FrameProfiler.Phase.PHYSIC, start);
+
+        start = profiler.start();
+        behaviorScheduler.update(g, elapsed);
+        CameraEntity camera = g.getCurrentCamera();
+        if (camera != null) {
+            keepPreviousPosition(camera);
+            for (int i = 0; i < camera.behaviors.size(); i++) {
+                camera.behaviors.get(i).update(g, camera, elapsed);
+            }
+        }
+        profiler.record(FrameProfiler.Phase.BEHAVIORS, start);
     }
 
+    /**
+     * Integrate the entity physic and then update its behaviors.
+     *
+     * @param g       the parent Game.
+     * @param e       the GameEntity to be updated.
+     * @param elapsed the elapsed time since previous update (in seconds).
+     */
     public void updateEntity(Game g, GameEntity e, double elapsed) {
-        if (!e.isStickToCamera()) {
-            Vector2D gravity = world.getGravity();
-            e.forces.add(gravity);
-            Material mWorld = addInfluencersEffects(e, world.getCollidingInfluencerWith(e));
+        integrateEntity(g, e, elapsed);
+        updateBehaviors(g, e, elapsed);
+    }
+
+    /**
+     * Apply forces, influencers and world effects to the entity, and compute its new velocity and position.
+     * All the computations are done in place on the entity vectors, without any allocation.
+     * The children of the entity are not integrated: they follow their parent frame
+     * (see {@link GameEntity#updateTransform()}).
+     *
+     * @param g       the parent Game.
+     * @param e       the GameEntity to be integrated.
+     * @param elapsed the elapsed time since previous update (in seconds).
+     */
+    public void integrateEntity(Game g, GameEntity e, double elapsed) {
+        InfluencerBuffers b = buffers.get();
+        integrateEntity(e, elapsed, b.candidates, b.colliding);
+    }
+
+    private void integrateEntity(GameEntity e, double elapsed, List<Influencer> candidates, List<Influencer> colliding) {
+        keepPreviousPosition(e);
+        if (!isAsleep(e)) {
+            if (!e.isStickToCamera()) {
+                Material mWorld = field != null
+                        ? accumulateFieldForces(e, field)
+                        : accumulateForces(e, collidingInfluencers(e, elapsed, candidates, colliding), elapsed);
+
+                double friction = e.material.friction * (mWorld != null ? mWorld.friction : 1.0);
+                double density = e.material.density * (mWorld != null ? mWorld.density : 1.0);
+
+                e.acceleration.set(e.force)
+                        .scaleLocal(e.mass * density)
+                        .maximize(e.getDouble(GameEntity.MAX_ACCELERATION, 0.0));
+
+                int steps = substepsOf(e, elapsed);
+                double h = elapsed;
+                if (steps > 1) {
+                    // keep the same friction over the whole step.
+                    h = elapsed / steps;
+                    friction = Math.pow(friction, 1.0 / steps);
+                }
+                double maxSpeed = e.getDouble(GameEntity.MAX_SPEED, 0.0);
+                for (int k = 0; k < steps; k++) {
+                    e.speed.addScaledLocal(e.acceleration, h)
+                            .scaleLocal(friction)
+                            .maximize(maxSpeed);
 
-            double friction = e.material.friction * (mWorld != null ? mWorld.friction : 1.0);
-            double density = e.material.density * (mWorld != null ? mWorld.density : 1.0);
+                    if (ccdEnabled && world.getPlayArea() != null) {
+                        moveInPlayArea(e, h);
+                    } else {
+                        e.position.addScaledLocal(e.speed, h);
+                    }
+                }
+                e.force.zero();
+            }
+            e.updateBox();
+        }
+    }
+
+    /**
+     * Parallel integration: the bodies view is split into chunks
+     * integrated by the fork/join pool. Each entity integration only reads the World and
+     * its influencers and writes the entity itself, so the chunks are
+     * independent. Behaviors are not called here: they stay in the sequential behaviors phase.
+     *
+     * @param entities the bodies to be integrated.
+     * @param elapsed  the elapsed time since previous update (in seconds).
+     */
+    private void integrateParallel(List<Entity> entities, double elapsed) {
+        pool.invoke(new RangeTask(0, entities.size(), chunkSize(entities.size()), (from, to) -> {
+            InfluencerBuffers b = buffers.get();
+            for (int i = from; i < to; i++) {
+                GameEntity e = (GameEntity) entities.get(i);
+                integrateEntity(e, elapsed, b.candidates, b.colliding);
+                constrainEntityToWorld(world, e);
+                updateRestState(e);
+            }
+        }));
+    }
+
+    /**
+     * Compute the chunk size to give a few chunks to each thread of the pool,
+     * to balance the load between them.
+     */
+    private int chunkSize(int count) {
+        return Math.max(64, count / (pool.getParallelism() * 4) + 1);
+    }
 
-            e.acceleration = e.acceleration.addAll(e.forces)
-                    .multiply((double) e.mass * density);
+    /**
+     * Update the world transforms of the entities hierarchies. A root entity moved by the physic
+     * is detected by comparing its position and rotation to its world transform; the changes of
+     * the children local transforms are signaled by {@link GameEntity#invalidateTransform()}.
+     * Only the changed subtrees are recomputed.
+     *
+     * @param entities the root entities.
+     */
+    private void updateTransforms(List<Entity> entities) {
+        for (int i = 0; i < entities.size(); i++) {
+            if (entities.get(i) instanceof GameEntity e) {
+                if (e.position.x != e.worldPosition.x
+                        || e.position.y != e.worldPosition.y
+                        || e.rotation != e.worldRotation) {
+                    e.invalidateTransform();
+                }
+                e.updateTransform();
+            }
+        }
+    }
 
-            e.acceleration.maximize((double) e.attributes.get("maxAcceleration"));
+    /**
+     * Update all the behaviors of the entity and of its children.
+     *
+     * @param g       the parent Game.
+     * @param e       the Entity to be updated.
+     * @param elapsed the elapsed time since previous update (in seconds).
+     */
+    public void updateBehaviors(Game g, Entity e, double elapsed) {
+        for (int i = 0; i < e.behaviors.size(); i++) {
+            e.behaviors.get(i).update(g, e, elapsed);
+        }
+        for (int i = 0; i < e.child.size(); i++) {
+            updateBehaviors(g, e.child.get(i), elapsed);
+        }
+    }
 
-            e.speed = e.speed
-                    .add(e.acceleration.multiply(elapsed))
-                    .multiply(friction);
-            e.speed.maximize((double) e.attributes.get("maxSpeed"));
+    /**
+     * Batched integration: the forces and material effects of each entity are gathered into
+     * the {@link PhysicStore} slots, all the slots are integrated in one loop over the primitive
+     * arrays, and the results are written back to the entities.
+     *
+     * @param entities the bodies to be integrated.
+     * @param elapsed  the elapsed time since previous update (in seconds).
+     */
+    private void integrateBatch(List<Entity> entities, double elapsed) {
+        InfluencerBuffers b = buffers.get();
+        store.clear();
+        for (int i = 0; i < entities.size(); i++) {
+            GameEntity ge = (GameEntity) entities.get(i);
+            keepPreviousPosition(ge);
+            int slot = store.slot(ge);
+            if (ge.isStickToCamera() || isAsleep(ge)) {
+                store.skip(slot);
+                continue;
+            }
+            if (substepsOf(ge, elapsed) > 1) {
+                // the bodies needing sub-steps leave the batch for this step.
+                store.skip(slot);
+                integrateEntity(ge, elapsed, b.candidates, b.colliding);
+                constrainEntityToWorld(world, ge);
+                updateRestState(ge);
+                continue;
+            }
+            Material mWorld = field != null
+                    ? accumulateFieldForces(ge, field)
+                    : accumulateForces(ge, collidingInfluencers(ge, elapsed, b.candidates, b.colliding), elapsed);
+            double friction = ge.material.friction * (mWorld != null ? mWorld.friction : 1.0);
+            double density = ge.material.density * (mWorld != null ? mWorld.density : 1.0);
+            store.load(slot, ge, ge.force.x, ge.force.y, friction, density);
+            ge.force.zero();
+        }
 
-            e.position = e.position.add(e.speed.multiply(elapsed));
-            e.forces.clear();
+        if (ccdEnabled && world.getPlayArea() != null) {
+            store.setBounds(world.getPlayArea().width, world.getPlayArea().height);
+        } else {
+            store.setBounds(0, 0);
+        }
+        if (pool != null && store.size() >= parallelThreshold) {
+            pool.invoke(new RangeTask(0, store.size(), chunkSize(store.size()),
+                    (from, to) -> integrateStore(from, to, elapsed)));
+        } else {
+            integrateStore(0, store.size(), elapsed);
         }
-        for (Behavior b : e.behaviors) {
-            b.update(g, e, elapsed);
+
+        for (int s = 0; s < store.size(); s++) {
+            if (store.active[s]) {
+                GameEntity ge = store.entities[s];
+                store.store(s, ge);
+                ge.updateBox();
+                constrainEntityToWorld(world, ge);
+                updateRestState(ge);
+            }
         }
-        e.updateBox();
-        e.child.forEach(c -> updateEntity(g, e, elapsed));
     }
 
-    private Material addInfluencersEffects(
-            GameEntity e,
-            Collection<Influencer> collidingInfluencerWith) {
+    private void integrateStore(int from, int to, double elapsed) {
+        if (vectorIntegrator != null) {
+            vectorIntegrator.integrate(store, from, to, elapsed);
+        } else {
+            store.integrate(from, to, elapsed);
+        }
+    }
+
+    /**
+     * Load the SIMD integrator by name: it is only compiled with the Maven <code>simd</code> profile.
+     *
+     * @return the integrator, or null if it has not been compiled into this build.
+     */
+    private static StoreIntegrator loadVectorIntegrator() {
+        try {
+            return (StoreIntegrator) Class.forName(PhysicEngine.class.getPackageName() + ".VectorIntegrator")
+                    .getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException | LinkageError e) {
+            System.err.printf("ERR : PhysicEngine | SIMD integration is not part of this build (Maven profile 'simd'): "
+                    + "scalar integration is used (%s)%n", e);
+            return null;
+        }
+    }
+
+    /**
+     * Check if the Vector API module has been added to this JVM, without loading any of its classes.
+     *
+     * @return true if the <code>jdk.incubator.vector</code> module is available.
+     */
+    private static boolean isVectorApiAvailable() {
+        return ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent();
+    }
+
+    /**
+     * Retrieve the structure-of-arrays physic storage.
+     *
+     * @return the PhysicStore, or null if <code>game.physic.batch.enabled</code> is false.
+     */
+    public PhysicStore getStore() {
+        return store;
+    }
+
+    /**
+     * Save the current position as the previous one, to let the {@link fr.snapgames.game.core.gfx.Renderer}
+     * interpolate between the 2 last physic states.
+     *
+     * @param e the GameEntity to be updated.
+     */
+    private void keepPreviousPosition(GameEntity e) {
+        e.previousPosition.x = e.position.x;
+        e.previousPosition.y = e.position.y;
+    }
+
+    /**
+     * Retrieve the influencers applying to the entity on this step: the ones overlapping its box,
+     * or with the continuous collision detection, the ones crossed by its box during the step.
+     */
+    private List<Influencer> collidingInfluencers(GameEntity e, double elapsed,
+                                                  List<Influencer> candidates, List<Influencer> colliding) {
+        if (ccdEnabled) {
+            return world.getSweptInfluencersWith(e, e.speed.x * elapsed, e.speed.y * elapsed, candidates, colliding);
+        }
+        return world.getCollidingInfluencerWith(e, candidates, colliding);
+    }
+
+    /**
+     * Accumulate into the entity force the world gravity, the forces added to the entity
+     * {@link GameEntity#forces} list (which is then cleared) and the effects of the colliding influencers.
+     * With the continuous collision detection, the influencer forces are weighted by the part of
+     * the step the entity spends inside the influencer volume.
+     *
+     * @param e           the GameEntity to be updated.
+     * @param influencers the influencers colliding with the entity.
+     * @param elapsed     the elapsed time since previous update (in seconds).
+     * @return the material to be applied by the influencers, or null if none.
+     */
+    private Material accumulateForces(GameEntity e, List<Influencer> influencers, double elapsed) {
+        e.force.addLocal(world.getGravity());
+        for (int i = 0; i < e.forces.size(); i++) {
+            e.force.addLocal(e.forces.get(i));
+        }
+        e.forces.clear();
         Material m = null;
-        for (Influencer i : collidingInfluencerWith) {
-            e.addForces(i.forces);
+        for (int n = 0; n < influencers.size(); n++) {
+            Influencer i = influencers.get(n);
+            double w = ccdEnabled ? Sweep.overlapTime(e, e.speed.x * elapsed, e.speed.y * elapsed, i) : 1.0;
+            for (int f = 0; f < i.forces.size(); f++) {
+                e.force.addScaledLocal(i.forces.get(f), w);
+            }
             // if influencer contains only a material.
-            if (Optional.ofNullable(i.material).isPresent()) {
+            if (i.material != null) {
                 m = i.material;
             }
             // if influencer contains a specific world object
-            if (Optional.ofNullable(i.getWorld()).isPresent()) {
+            World iWorld = i.getWorld();
+            if (iWorld != null) {
                 // if specific world material is applied
-                if (Optional.ofNullable(i.getWorld().getMaterial()).isPresent()) {
-                    m = i.getWorld().getMaterial();
+                if (iWorld.getMaterial() != null) {
+                    m = iWorld.getMaterial();
                 }
                 // if a specific world gravity is applied
-                if (Optional.ofNullable(i.getWorld().getGravity()).isPresent()) {
-                    e.addForce(i.getWorld().getGravity());
+                if (iWorld.getGravity() != null) {
+                    e.force.addScaledLocal(iWorld.getGravity(), w);
                 }
             }
         }
         return m;
     }
 
+    /**
+     * Accumulate into the entity force the world gravity, the forces added to the entity, and
+     * the influencers effects baked into the field cell of the entity center.
+     *
+     * @param e the GameEntity to be updated.
+     * @param f the baked influence field.
+     * @return the material to be applied by the influencers, or null if none.
+     */
+    private Material accumulateFieldForces(GameEntity e, InfluenceField f) {
+        e.force.addLocal(world.getGravity());
+        for (int i = 0; i < e.forces.size(); i++) {
+            e.force.addLocal(e.forces.get(i));
+        }
+        e.forces.clear();
+        int cell = f.cell(e.position.x + e.size.x * 0.5, e.position.y + e.size.y * 0.5);
+        if (cell < 0) {
+            return null;
+        }
+        e.force.addLocal(f.forceX[cell], f.forceY[cell]);
+        return f.material[cell];
+    }
+
+    /**
+     * Compute the number of sub-steps of the entity for this step: the <code>substeps</code>
+     * entity attribute if set, else the global <code>game.physic.substep.count</code>, else
+     * enough sub-steps for the body not to move more than <code>game.physic.substep.distance</code>
+     * during each of them. Slow bodies are not sub-stepped.
+     *
+     * @param e       the GameEntity.
+     * @param elapsed the elapsed time since previous update (in seconds).
+     * @return the number of sub-steps, at least 1.
+     */
+    private int substepsOf(GameEntity e, double elapsed) {
+        if (!substepEnabled) {
+            return 1;
+        }
+        int k = e.getInt(SUBSTEPS, -1);
+        if (k >= 0) {
+            return Math.max(1, k);
+        }
+        if (substepCount > 0) {
+            return substepCount;
+        }
+        double speed = Math.sqrt(e.speed.x * e.speed.x + e.speed.y * e.speed.y);
+        double acceleration = Math.sqrt(e.acceleration.x * e.acceleration.x + e.acceleration.y * e.acceleration.y);
+        double distance = (speed + acceleration * elapsed) * elapsed;
+        return (int) Math.max(1, Math.min(substepMax, Math.ceil(distance / substepDistance)));
+    }
+
+    /**
+     * Move the entity for the step, computing the time of impact against the play area bounds
+     * on each axis: the entity is stopped on the bound at the time of impact, its speed on this
+     * axis is reflected according to its material elasticity, and it moves on for the rest of the step.
+     *
+     * @param e       the GameEntity to be moved.
+     * @param elapsed the elapsed time since previous update (in seconds).
+     */
+    private void moveInPlayArea(GameEntity e, double elapsed) {
+        double elasticity = e.material != null ? e.material.elasticity : 1.0;
+        double maxX = world.getPlayArea().width - e.size.x;
+        double t = Sweep.boundsImpact(e.position.x, e.speed.x, e.size.x, world.getPlayArea().width, elapsed);
+        if (t == Sweep.NO_IMPACT) {
+            e.position.x += e.speed.x * elapsed;
+        } else {
+            e.position.x = e.speed.x < 0 ? 0 : maxX;
+            e.speed.x = -e.speed.x * elasticity;
+            e.position.x = Math.max(0, Math.min(maxX, e.position.x + e.speed.x * (elapsed - t)));
+        }
+        double maxY = world.getPlayArea().height - e.size.y;
+        t = Sweep.boundsImpact(e.position.y, e.speed.y, e.size.y, world.getPlayArea().height, elapsed);
+        if (t == Sweep.NO_IMPACT) {
+            e.position.y += e.speed.y * elapsed;
+        } else {
+            e.position.y = e.speed.y < 0 ? 0 : maxY;
+            e.speed.y = -e.speed.y * elasticity;
+            e.position.y = Math.max(0, Math.min(maxY, e.position.y + e.speed.y * (elapsed - t)));
+        }
+    }
+
+    /**
+     * Check if a sleeping entity can stay asleep: it is woken up if a force has been applied
+     * to it or if the World influencers have changed since it fell asleep.
+     *
+     * @param e the GameEntity to be tested.
+     * @return true if the entity must be skipped by the integration.
+     */
+    private boolean isAsleep(GameEntity e) {
+        if (!e.sleeping) {
+            return false;
+        }
+        if (e.force.x == 0.0 && e.force.y == 0.0 && e.forces.isEmpty() && e.sleepVersion == world.getVersion()) {
+            return true;
+        }
+        e.wakeUp();
+        return false;
+    }
+
+    /**
+     * Count the steps the entity stays under the sleep speed, and put it asleep after
+     * <code>game.physic.sleep.frames</code> steps.
+     *
+     * @param e the GameEntity to be updated.
+     */
+    private void updateRestState(GameEntity e) {
+        if (!sleepEnabled || e.sleeping || e.isStickToCamera()) {
+            return;
+        }
+        if (e.speed.x * e.speed.x + e.speed.y * e.speed.y < sleepSpeed * sleepSpeed) {
+            if (++e.restFrames >= sleepFrames) {
+                e.sleeping = true;
+                e.sleepVersion = world.getVersion();
+                e.speed.zero();
+                e.acceleration.zero();
+            }
+        } else {
+            e.restFrames = 0;
+        }
+    }
+
     /**
      * Constrain the GameEntity ge to stay in the world play area.
      *
@@ -116,30 +663,75 @@ public class PhysicEngine {
      * @see World
      */
     private void constrainEntityToWorld(World world, GameEntity ge) {
+        if (ge.sleeping) {
+            return;
+        }
         if (world.isNotContaining(ge)) {
-            if (ge.position.x + ge.size.x > world.getPlayArea().width) {
-                ge.position.x = world.getPlayArea().width - ge.size.x;
-            }
-            if (ge.position.x < 0) {
-                ge.position.x = 0;
-            }
-            if (ge.position.y + ge.size.y > world.getPlayArea().height) {
-                ge.position.y = world.getPlayArea().height - ge.size.y;
-            }
-            if (ge.position.y < 0) {
-                ge.position.y = 0;
-            }
+            clampEntityToWorld(world, ge);
             if (ge.material != null) {
-                ge.speed = ge.speed.multiply(-ge.material.elasticity);
+                ge.speed.scaleLocal(-ge.material.elasticity);
             }
         } else {
             if (world.getMaterial() != null) {
-                ge.speed = ge.speed.multiply(world.getMaterial().friction);
+                ge.speed.scaleLocal(world.getMaterial().friction);
             }
         }
     }
 
+    /**
+     * Move the entity back into the play area, without changing its speed.
+     *
+     * @param world the World defining the play area.
+     * @param ge    the GameEntity to be clamped.
+     */
+    private void clampEntityToWorld(World world, GameEntity ge) {
+        Dimension playArea = world.getPlayArea();
+        if (ge.position.x + ge.size.x > playArea.width) {
+            ge.position.x = playArea.width - ge.size.x;
+        }
+        if (ge.position.x < 0) {
+            ge.position.x = 0;
+        }
+        if (ge.position.y + ge.size.y > playArea.height) {
+            ge.position.y = playArea.height - ge.size.y;
+        }
+        if (ge.position.y < 0) {
+            ge.position.y = 0;
+        }
+    }
+
+    /**
+     * Release the physic data of a removed entity.
+     *
+     * @param e the removed GameEntity.
+     */
+    public void remove(GameEntity e) {
+        if (store != null) {
+            store.remove(e);
+        }
+    }
+
     public World getWorld() {
         return world;
     }
+
+    /**
+     * Release the parallel integration threads, if any: next updates are single-threaded.
+     */
+    public void dispose() {
+        if (pool != null) {
+            pool.shutdown();
+            pool = null;
+            behaviorScheduler.setParallel(null, Integer.MAX_VALUE);
+        }
+    }
+
+    /**
+     * Retrieve the entity-vs-entity collision system.
+     *
+     * @return the CollisionSystem, or null if <code>game.physic.collision.enabled</code> is false.
+     */
+    public CollisionSystem getCollisionSystem() {
+        return collisionSystem;
+    }
 }
@@ -0,0 +1,280 @@
+package fr.snapgames.game.core.math.physic;
+
+import fr.snapgames.game.core.entity.GameEntity;
+
+import java.util.Arrays;
+
+/**
+ * A structure-of-arrays scratch buffer for the integration step: positions, velocities,
+ * accelerations, accumulated forces, mass and material coefficients are copied into
+ * primitive arrays indexed by an entity slot, so that the {@link #integrate(double)}
+ * batch loop walks contiguous memory instead of following each entity's
+ * {@link fr.snapgames.game.core.math.Vector2D} references.
+ * <p>
+ * The {@link GameEntity} fields remain the storage of the physic state: they are copied into
+ * the slot before the integration ({@link #load(int, GameEntity, double, double, double, double)})
+ * and written back just after ({@link #store(int, GameEntity)}). The slots are rebuilt on each
+ * step (see {@link #clear()}).
+ *
+ * @author Frédéric Delorme
+ * @since 1.0.1
+ */
+public class PhysicStore {
+
+    private static final int NO_SLOT = -1;
+
+    int count = 0;
+    GameEntity[] entities = new GameEntity[0];
+    // entity id to slot index
+    int[] slots = new int[0];
+
+    double[] px = new double[0];
+    double[] py = new double[0];
+    double[] vx = new double[0];
+    double[] vy = new double[0];
+    double[] ax = new double[0];
+    double[] ay = new double[0];
+    double[] fx = new double[0];
+    double[] fy = new double[0];
+    double[] mass = new double[0];
+    double[] density = new double[0];
+    double[] friction = new double[0];
+    double[] elasticity = new double[0];
+    double[] maxSpeed = new double[0];
+    double[] maxAcceleration = new double[0];
+    boolean[] active = new boolean[0];
+    double[] width = new double[0];
+    double[] height = new double[0];
+    // play area bounds for the continuous collision detection, 0 when not activated.
+    double boundsWidth = 0;
+    double boundsHeight = 0;
+
+    /**
+     * Retrieve the slot of the entity, allocating a new one if needed.
+     *
+     * @param e the GameEntity.
+     * @return the slot index of the entity into the arrays.
+     */
+    public int slot(GameEntity e) {
+        if (e.id >= slots.length) {
+            int size = Math.max(e.id + 1, slots.length * 2);
+            int old = slots.length;
+            slots = Arrays.copyOf(slots, size);
+            Arrays.fill(slots, old, size, NO_SLOT);
+        }
+        int s = slots[e.id];
+        if (s == NO_SLOT) {
+            ensureCapacity(count + 1);
+            s = count++;
+            slots[e.id] = s;
+            entities[s] = e;
+        }
+        return s;
+    }
+
+    /**
+     * Release all the slots, before gathering the bodies of a new step: an entity removed from
+     * the game without going through the PhysicEngine does not keep an active slot.
+     */
+    public void clear() {
+        for (int s = 0; s < count; s++) {
+            slots[entities[s].id] = NO_SLOT;
+            entities[s] = null;
+            active[s] = false;
+        }
+        count = 0;
+    }
+
+    /**
+     * Release the slot of an entity: the last slot is moved into the freed one.
+     *
+     * @param e the GameEntity to be removed from the store.
+     */
+    public void remove(GameEntity e) {
+        if (e.id >= slots.length || slots[e.id] == NO_SLOT) {
+            return;
+        }
+        int s = slots[e.id];
+        int last = --count;
+        if (s != last) {
+            GameEntity moved = entities[last];
+            entities[s] = moved;
+            slots[moved.id] = s;
+            px[s] = px[last];
+            py[s] = py[last];
+            vx[s] = vx[last];
+            vy[s] = vy[last];
+            ax[s] = ax[last];
+            ay[s] = ay[last];
+            fx[s] = fx[last];
+            fy[s] = fy[last];
+            mass[s] = mass[last];
+            density[s] = density[last];
+            friction[s] = friction[last];
+            elasticity[s] = elasticity[last];
+            maxSpeed[s] = maxSpeed[last];
+            maxAcceleration[s] = maxAcceleration[last];
+            active[s] = active[last];
+            width[s] = width[last];
+            height[s] = height[last];
+        }
+        entities[last] = null;
+        slots[e.id] = NO_SLOT;
+    }
+
+    /**
+     * Load the entity state and the forces and material applied for this step into its slot.
+     *
+     * @param s            the entity slot.
+     * @param e            the GameEntity.
+     * @param forceX       the sum of the forces applied on the X axis.
+     * @param forceY       the sum of the forces applied on the Y axis.
+     * @param stepFriction the friction factor to be applied on this step.
+     * @param stepDensity  the density factor to be applied on this step.
+     */
+    public void load(int s, GameEntity e, double forceX, double forceY, double stepFriction, double stepDensity) {
+        px[s] = e.position.x;
+        py[s] = e.position.y;
+        vx[s] = e.speed.x;
+        vy[s] = e.speed.y;
+        fx[s] = forceX;
+        fy[s] = forceY;
+        mass[s] = e.mass;
+        density[s] = stepDensity;
+        friction[s] = stepFriction;
+        elasticity[s] = e.material != null ? e.material.elasticity : 1.0;
+        maxSpeed[s] = e.getDouble(GameEntity.MAX_SPEED, 0.0);
+        maxAcceleration[s] = e.getDouble(GameEntity.MAX_ACCELERATION, 0.0);
+        width[s] = e.size.x;
+        height[s] = e.size.y;
+        active[s] = true;
+    }
+
+    /**
+     * Define the play area bounds used to compute the time of impact of the entities during
+     * the integration, or deactivate it with a zero size.
+     *
+     * @param w the play area width.
+     * @param h the play area height.
+     */
+    public void setBounds(double w, double h) {
+        this.boundsWidth = w;
+        this.boundsHeight = h;
+    }
+
+    /**
+     * Exclude the slot from the next integration (e.g. the entity sticks to the camera).
+     *
+     * @param s the entity slot.
+     */
+    public void skip(int s) {
+        active[s] = false;
+    }
+
+    /**
+     * Batch integration of all the active slots.
+     *
+     * @param dt the elapsed time in seconds.
+     */
+    public void integrate(double dt) {
+        integrate(0, count, dt);
+    }
+
+    /**
+     * Batch integration of the active slots in the range [from, to).
+     *
+     * @param from first slot.
+     * @param to   last slot (excluded).
+     * @param dt   the elapsed time in seconds.
+     */
+    public void integrate(int from, int to, double dt) {
+        for (int i = from; i < to; i++) {
+            if (!active[i]) {
+                continue;
+            }
+            double f = mass[i] * density[i];
+            double maxA = maxAcceleration[i];
+            double accX = clamp(fx[i] * f, maxA);
+            double accY = clamp(fy[i] * f, maxA);
+            ax[i] = accX;
+            ay[i] = accY;
+            double maxV = maxSpeed[i];
+            double velX = clamp((vx[i] + accX * dt) * friction[i], maxV);
+            double velY = clamp((vy[i] + accY * dt) * friction[i], maxV);
+            if (boundsWidth > 0) {
+                double t = Sweep.boundsImpact(px[i], velX, width[i], boundsWidth, dt);
+                if (t == Sweep.NO_IMPACT) {
+                    px[i] += velX * dt;
+                } else {
+                    double maxX = boundsWidth - width[i];
+                    double bound = velX < 0 ? 0 : maxX;
+                    velX = -velX * elasticity[i];
+                    px[i] = Math.max(0, Math.min(maxX, bound + velX * (dt - t)));
+                }
+                t = Sweep.boundsImpact(py[i], velY, height[i], boundsHeight, dt);
+                if (t == Sweep.NO_IMPACT) {
+                    py[i] += velY * dt;
+                } else {
+                    double maxY = boundsHeight - height[i];
+                    double bound = velY < 0 ? 0 : maxY;
+                    velY = -velY * elasticity[i];
+                    py[i] = Math.max(0, Math.min(maxY, bound + velY * (dt - t)));
+                }
+            } else {
+                px[i] += velX * dt;
+                py[i] += velY * dt;
+            }
+            vx[i] = velX;
+            vy[i] = velY;
+            fx[i] = 0.0;
+            fy[i] = 0.0;
+        }
+    }
+
+    private static double clamp(double v, double max) {
+        return Math.abs(v) > max ? Math.signum(v) * max : v;
+    }
+
+    /**
+     * Write the slot state back into the entity fields.
+     *
+     * @param s the entity slot.
+     * @param e the GameEntity to be synchronized.
+     */
+    public void store(int s, GameEntity e) {
+        e.position.x = px[s];
+        e.position.y = py[s];
+        e.speed.x = vx[s];
+        e.speed.y = vy[s];
+        e.acceleration.x = ax[s];
+        e.acceleration.y = ay[s];
+    }
+
+    public int size() {
+        return count;
+    }
+
+    private void ensureCapacity(int size) {
+        if (entities.length < size) {
+            int capacity = Math.max(size, entities.length * 2);
+            entities = Arrays.copyOf(entities, capacity);
+            px = Arrays.copyOf(px, capacity);
+            py = Arrays.copyOf(py, capacity);
+            vx = Arrays.copyOf(vx, capacity);
+            vy = Arrays.copyOf(vy, capacity);
+            ax = Arrays.copyOf(ax, capacity);
+            ay = Arrays.copyOf(ay, capacity);
+            fx = Arrays.copyOf(fx, capacity);
+            fy = Arrays.copyOf(fy, capacity);
+            mass = Arrays.copyOf(mass, capacity);
+            density = Arrays.copyOf(density, capacity);
+            friction = Arrays.copyOf(friction, capacity);
+            elasticity = Arrays.copyOf(elasticity, capacity);
+            maxSpeed = Arrays.copyOf(maxSpeed, capacity);
+            maxAcceleration = Arrays.copyOf(maxAcceleration, capacity);
+            active = Arrays.copyOf(active, capacity);
+            width = Arrays.copyOf(width, capacity);
+            height = Arrays.copyOf(height, capacity);
+        }
+    }
+}
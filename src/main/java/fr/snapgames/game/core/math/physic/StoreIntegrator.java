@@ -0,0 +1,31 @@
+package fr.snapgames.game.core.math.physic;
+
+/**
+ * An alternative integration of the {@link PhysicStore} slots, giving the same results as
+ * {@link PhysicStore#integrate(int, int, double)}.
+ * <p>
+ * The {@link PhysicEngine} loads its implementation by name, as the <code>VectorIntegrator</code> one is only
+ * compiled with the Maven <code>simd</code> profile.
+ *
+ * @author Frédéric Delorme
+ * @since 1.0.1
+ */
+public interface StoreIntegrator {
+
+    /**
+     * Retrieve the number of slots processed at once.
+     *
+     * @return the lanes count.
+     */
+    int getLanes();
+
+    /**
+     * Batch integration of the active slots in the range [from, to).
+     *
+     * @param s    the PhysicStore to be integrated.
+     * @param from first slot.
+     * @param to   last slot (excluded).
+     * @param dt   the elapsed time in seconds.
+     */
+    void integrate(PhysicStore s, int from, int to, double dt);
+}
@@ -0,0 +1,87 @@
+package fr.snapgames.game.core.math.physic;
+
+import fr.snapgames.game.core.entity.GameEntity;
+
+/**
+ * Continuous collision detection helpers: instead of testing the positions at the end of
+ * a physic step, the move of a box during the step is swept to compute the time of impact
+ * against the play area bounds, and the part of the step spent inside an influencer volume.
+ * <p>
+ * A circle entity is swept as its bounding box: this is exact against the axis aligned
+ * play area bounds, and conservative against the influencer volumes.
+ *
+ * @author Frédéric Delorme
+ * @since 1.0.1
+ */
+public class Sweep {
+
+    /**
+     * Returned when no impact occurs during the step.
+     */
+    public static final double NO_IMPACT = -1.0;
+
+    private Sweep() {
+    }
+
+    /**
+     * Compute the time of impact, along one axis, of a segment [p, p+size] moving at the speed v
+     * during dt, against the bounds [0, max].
+     *
+     * @param p    the segment start position.
+     * @param v    the speed along the axis.
+     * @param size the segment length.
+     * @param max  the upper bound.
+     * @param dt   the step duration.
+     * @return the time of impact in [0, dt], or {@link #NO_IMPACT}.
+     */
+    public static double boundsImpact(double p, double v, double size, double max, double dt) {
+        if (v < 0 && p + v * dt < 0) {
+            return p <= 0 ? 0 : -p / v;
+        }
+        if (v > 0 && p + size + v * dt > max) {
+            return p + size >= max ? 0 : (max - size - p) / v;
+        }
+        return NO_IMPACT;
+    }
+
+    /**
+     * Compute the fraction of the move during which the box of the entity, moving by (dx,dy),
+     * overlaps the box of the influencer.
+     *
+     * @param e  the moving GameEntity.
+     * @param dx the move along the X axis during the step.
+     * @param dy the move along the Y axis during the step.
+     * @param i  the Influencer.
+     * @return the overlap fraction in [0, 1], 0 if the entity never enters the influencer.
+     */
+    public static double overlapTime(GameEntity e, double dx, double dy, Influencer i) {
+        double enterX, exitX, enterY, exitY;
+        if (dx == 0) {
+            if (e.position.x >= i.position.x + i.size.x || e.position.x + e.size.x <= i.position.x) {
+                return 0;
+            }
+            enterX = Double.NEGATIVE_INFINITY;
+            exitX = Double.POSITIVE_INFINITY;
+        } else {
+            double t1 = (i.position.x - (e.position.x + e.size.x)) / dx;
+            double t2 = (i.position.x + i.size.x - e.position.x) / dx;
+            enterX = Math.min(t1, t2);
+            exitX = Math.max(t1, t2);
+        }
+        if (dy == 0) {
+            if (e.position.y >= i.position.y + i.size.y || e.position.y + e.size.y <= i.position.y) {
+                return 0;
+            }
+            enterY = Double.NEGATIVE_INFINITY;
+            exitY = Double.POSITIVE_INFINITY;
+        } else {
+            double t1 = (i.position.y - (e.position.y + e.size.y)) / dy;
+            double t2 = (i.position.y + i.size.y - e.position.y) / dy;
+            enterY = Math.min(t1, t2);
+            exitY = Math.max(t1, t2);
+        }
+        double enter = Math.max(0.0, Math.max(enterX, enterY));
+        double exit = Math.min(1.0, Math.min(exitX, exitY));
+        return exit > enter ? exit - enter : 0;
+    }
+}
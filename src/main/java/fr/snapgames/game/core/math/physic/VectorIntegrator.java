@@ -0,0 +1,103 @@
+package fr.snapgames.game.core.math.physic;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * A SIMD version of the {@link PhysicStore} integration, using the incubating JDK Vector API:
+ * the acceleration clamping, friction and position updates are computed on whole lanes of slots
+ * at once (the gravity is already summed into the slot forces by the {@link PhysicEngine}).
+ * <p>
+ * The results are bit to bit the ones of {@link PhysicStore#integrate(int, int, double)}: the
+ * same operations are done in the same order, and the clamp on <code>[-max, max]</code> gives
+ * the same value as the scalar <code>signum(v) * max</code>. Lanes where an entity hits the play
+ * area bounds (continuous collision detection) are computed again by the scalar code.
+ * <p>
+ * This class needs the <code>jdk.incubator.vector</code> module at runtime
+ * (<code>--add-modules jdk.incubator.vector</code>) and is only compiled with the Maven <code>simd</code>
+ * profile: the {@link PhysicEngine} only loads it when the module is available, and falls back to the
+ * scalar integration otherwise.
+ *
+ * @author Frédéric Delorme
+ * @since 1.0.1
+ */
+public class VectorIntegrator implements StoreIntegrator {
+
+    private static final VectorSpecies<Double> SPECIES = DoubleVector.SPECIES_PREFERRED;
+
+    /**
+     * Retrieve the number of slots processed at once.
+     *
+     * @return the vector lanes count.
+     */
+    @Override
+    public int getLanes() {
+        return SPECIES.length();
+    }
+
+    /**
+     * Batch integration of the active slots in the range [from, to).
+     *
+     * @param s    the PhysicStore to be integrated.
+     * @param from first slot.
+     * @param to   last slot (excluded).
+     * @param dt   the elapsed time in seconds.
+     */
+    @Override
+    public void integrate(PhysicStore s, int from, int to, double dt) {
+        int lanes = SPECIES.length();
+        int upper = from + SPECIES.loopBound(to - from);
+        boolean bounds = s.boundsWidth > 0;
+        DoubleVector zero = DoubleVector.zero(SPECIES);
+        int i = from;
+        for (; i < upper; i += lanes) {
+            VectorMask<Double> active = VectorMask.fromArray(SPECIES, s.active, i);
+            if (!active.anyTrue()) {
+                continue;
+            }
+            DoubleVector f = DoubleVector.fromArray(SPECIES, s.mass, i)
+                    .mul(DoubleVector.fromArray(SPECIES, s.density, i));
+            DoubleVector maxA = DoubleVector.fromArray(SPECIES, s.maxAcceleration, i);
+            DoubleVector accX = clamp(DoubleVector.fromArray(SPECIES, s.fx, i).mul(f), maxA);
+            DoubleVector accY = clamp(DoubleVector.fromArray(SPECIES, s.fy, i).mul(f), maxA);
+
+            DoubleVector friction = DoubleVector.fromArray(SPECIES, s.friction, i);
+            DoubleVector maxV = DoubleVector.fromArray(SPECIES, s.maxSpeed, i);
+            DoubleVector velX = clamp(DoubleVector.fromArray(SPECIES, s.vx, i).add(accX.mul(dt)).mul(friction), maxV);
+            DoubleVector velY = clamp(DoubleVector.fromArray(SPECIES, s.vy, i).add(accY.mul(dt)).mul(friction), maxV);
+
+            DoubleVector posX = DoubleVector.fromArray(SPECIES, s.px, i).add(velX.mul(dt));
+            DoubleVector posY = DoubleVector.fromArray(SPECIES, s.py, i).add(velY.mul(dt));
+
+            if (bounds && hitsBounds(s, i, posX, posY, active)) {
+                // rare case: let the scalar code compute the time of impact.
+                s.integrate(i, i + lanes, dt);
+                continue;
+            }
+            accX.intoArray(s.ax, i, active);
+            accY.intoArray(s.ay, i, active);
+            velX.intoArray(s.vx, i, active);
+            velY.intoArray(s.vy, i, active);
+            posX.intoArray(s.px, i, active);
+            posY.intoArray(s.py, i, active);
+            zero.intoArray(s.fx, i, active);
+            zero.intoArray(s.fy, i, active);
+        }
+        // remaining slots
+        s.integrate(i, to, dt);
+    }
+
+    private static DoubleVector clamp(DoubleVector v, DoubleVector max) {
+        return v.max(max.neg()).min(max);
+    }
+
+    private static boolean hitsBounds(PhysicStore s, int i, DoubleVector posX, DoubleVector posY, VectorMask<Double> active) {
+        VectorMask<Double> out = posX.compare(VectorOperators.LT, 0.0)
+                .or(posY.compare(VectorOperators.LT, 0.0))
+                .or(posX.add(DoubleVector.fromArray(SPECIES, s.width, i)).compare(VectorOperators.GT, s.boundsWidth))
+                .or(posY.add(DoubleVector.fromArray(SPECIES, s.height, i)).compare(VectorOperators.GT, s.boundsHeight));
+        return out.and(active).anyTrue();
+    }
+}
@@ -3,11 +3,11 @@ package fr.snapgames.game.core.math.physic;
 import java.awt.Dimension;
 import java.awt.geom.Rectangle2D;
 import java.util.ArrayList;
-import java.util.Collection;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Optional;
 
 import fr.snapgames.game.core.entity.GameEntity;
+import fr.snapgames.game.core.math.SpatialGrid;
 import fr.snapgames.game.core.math.Vector2D;
 
 public class World {
@@ -15,22 +15,142 @@ public class World {
     private Vector2D gravity;
     private Material material;
     private List<Influencer> influencers = new ArrayList<>();
+    /**
+     * Broad phase index of the influencers, only available when the world has a play area.
+     */
+    private SpatialGrid<Influencer> influencerGrid;
+    // candidates and result buffers for the single-threaded lookup.
+    private final List<Influencer> candidates = new ArrayList<>();
+    private final List<Influencer> colliding = new ArrayList<>();
+    /**
+     * Incremented each time an influencer is added, moved or removed, or the gravity is changed,
+     * to wake up the sleeping entities.
+     */
+    private int version = 0;
+    /**
+     * Baked effects of the influencers, if activated, and rebuilt when the influencers have changed.
+     */
+    private InfluenceField field;
+    private int fieldVersion = -1;
 
     public World(Dimension area, Vector2D gravity) {
         this.playArea = area;
         this.gravity = gravity;
         this.material = new Material("worldDefaultMaterial", 1.0, 1.0, 1.0);
+        this.influencerGrid = createGrid(area, 64.0);
+    }
+
+    /**
+     * Define the cell size of the spatial grid indexing the influencers over the play area.
+     *
+     * @param cellSize the size of a grid cell.
+     * @return the updated World.
+     */
+    public World setGridCellSize(double cellSize) {
+        influencerGrid = createGrid(playArea, cellSize);
+        if (Optional.ofNullable(influencerGrid).isPresent()) {
+            influencers.forEach(this::index);
+        }
+        return this;
+    }
+
+    private static SpatialGrid<Influencer> createGrid(Dimension area, double cellSize) {
+        return Optional.ofNullable(area).isPresent() ? new SpatialGrid<>(area.width, area.height, cellSize) : null;
+    }
+
+    /**
+     * Activate the influence field grid baking the influencers effects over the play area.
+     *
+     * @param cellSize the size of a field cell, 0 to deactivate the field.
+     * @return the updated World.
+     */
+    public World setFieldCellSize(double cellSize) {
+        field = null;
+        if (playArea != null && cellSize > 0) {
+            field = new InfluenceField(playArea.width, playArea.height, cellSize);
+            fieldVersion = -1;
+        }
+        return this;
+    }
+
+    /**
+     * Retrieve the influence field, baked again if the influencers have been added,
+     * moved or removed since the last call.
+     *
+     * @return the InfluenceField, or null if not activated.
+     */
+    public InfluenceField getField() {
+        if (field != null && fieldVersion != version) {
+            field.bake(influencers);
+            fieldVersion = version;
+        }
+        return field;
     }
 
     public World add(Influencer i) {
         this.influencers.add(i);
+        version++;
+        index(i);
         return this;
     }
 
+    /**
+     * Update the influencer into the spatial grid after it has been moved or resized.
+     *
+     * @param i the Influencer to be updated.
+     * @return the updated World.
+     */
+    public World update(Influencer i) {
+        version++;
+        index(i);
+        return this;
+    }
+
+    public World remove(Influencer i) {
+        this.influencers.remove(i);
+        version++;
+        if (Optional.ofNullable(influencerGrid).isPresent()) {
+            influencerGrid.remove(i);
+        }
+        return this;
+    }
+
+    private void index(Influencer i) {
+        if (Optional.ofNullable(influencerGrid).isPresent()) {
+            influencerGrid.put(i, i.position.x, i.position.y, i.size.x, i.size.y);
+        }
+    }
+
+    /**
+     * Retrieve the world version, changed on each influencer add, move or remove, and on each gravity change.
+     *
+     * @return the current version.
+     */
+    public int getVersion() {
+        return version;
+    }
+
+    public List<Influencer> getInfluencers() {
+        return influencers;
+    }
+
     public Vector2D getGravity() {
         return this.gravity;
     }
 
+    /**
+     * Change the world gravity, waking up the sleeping entities. The gravity must be changed
+     * through this method, not in place on {@link #getGravity()}.
+     *
+     * @param g the new gravity.
+     * @return the updated World.
+     */
+    public World setGravity(Vector2D g) {
+        this.gravity = g;
+        version++;
+        return this;
+    }
+
     public Dimension getPlayArea() {
         return playArea;
     }
@@ -42,8 +162,73 @@ public class World {
                 || ge.position.y + ge.size.y > playArea.height;
     }
 
-    public Collection<Influencer> getCollidingInfluencerWith(GameEntity e) {
-        return influencers.stream().filter(i -> e.box.intersects((Rectangle2D) i.box)).collect(Collectors.toList());
+    /**
+     * Retrieve the influencers intersecting the entity. The returned collection is an internal
+     * buffer reused on each call: it must be consumed before the next call.
+     *
+     * @param e the GameEntity to be tested.
+     * @return the influencers colliding with the entity.
+     */
+    public List<Influencer> getCollidingInfluencerWith(GameEntity e) {
+        return getCollidingInfluencerWith(e, candidates, colliding);
+    }
+
+    /**
+     * Retrieve the influencers intersecting the entity, using only the grid cells covered by
+     * the entity box, into caller provided buffers.
+     *
+     * @param e          the GameEntity to be tested.
+     * @param candidates a buffer for the broad phase candidates.
+     * @param result     the list receiving the colliding influencers (cleared first).
+     * @return the result list.
+     */
+    public List<Influencer> getCollidingInfluencerWith(GameEntity e, List<Influencer> candidates, List<Influencer> result) {
+        result.clear();
+        List<Influencer> list = influencers;
+        // plain null check: this is called for each entity on each physic step.
+        if (influencerGrid != null) {
+            list = influencerGrid.query(e.position.x, e.position.y, e.size.x, e.size.y, candidates);
+        }
+        for (int i = 0; i < list.size(); i++) {
+            Influencer inf = list.get(i);
+            if (e.box.intersects((Rectangle2D) inf.box)) {
+                result.add(inf);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Retrieve the influencers crossed by the entity box moving by (dx,dy) during the step,
+     * using the grid cells covered by the swept box, into caller provided buffers.
+     *
+     * @param e          the moving GameEntity.
+     * @param dx         the move along the X axis during the step.
+     * @param dy         the move along the Y axis during the step.
+     * @param candidates a buffer for the broad phase candidates.
+     * @param result     the list receiving the crossed influencers (cleared first).
+     * @return the result list.
+     * @see Sweep#overlapTime(GameEntity, double, double, Influencer)
+     */
+    public List<Influencer> getSweptInfluencersWith(GameEntity e, double dx, double dy,
+                                                    List<Influencer> candidates, List<Influencer> result) {
+        result.clear();
+        List<Influencer> list = influencers;
+        if (influencerGrid != null) {
+            list = influencerGrid.query(
+                    Math.min(e.position.x, e.position.x + dx),
+                    Math.min(e.position.y, e.position.y + dy),
+                    e.size.x + Math.abs(dx),
+                    e.size.y + Math.abs(dy),
+                    candidates);
+        }
+        for (int i = 0; i < list.size(); i++) {
+            Influencer inf = list.get(i);
+            if (Sweep.overlapTime(e, dx, dy, inf) > 0) {
+                result.add(inf);
+            }
+        }
+        return result;
     }
 
     public Material getMaterial() {
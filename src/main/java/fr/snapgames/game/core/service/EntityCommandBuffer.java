@@ -0,0 +1,164 @@
+package fr.snapgames.game.core.service;
+
+import fr.snapgames.game.Game;
+import fr.snapgames.game.core.entity.Entity;
+import fr.snapgames.game.core.entity.GameEntity;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * A buffer of deferred changes on the entities: spawns, despawns, component changes and
+ * reparenting requested while the entities are iterated (from a behavior, or from a parallel
+ * update phase) are queued here, and applied in one batch, in the request order, when the
+ * {@link EntityManager} is flushed at a sync point of the game loop.
+ * <p>
+ * The queue is thread-safe: any thread may record commands.
+ *
+ * @author Frédéric Delorme
+ * @since 1.0.1
+ */
+public class EntityCommandBuffer {
+
+    private enum Type {
+        SPAWN, DESPAWN, ADD_COMPONENT, REMOVE_COMPONENT, REPARENT
+    }
+
+    private static final class Command {
+        final Type type;
+        final Entity entity;
+        final Object arg;
+
+        Command(Type type, Entity entity, Object arg) {
+            this.type = type;
+            this.entity = entity;
+            this.arg = arg;
+        }
+    }
+
+    private final Queue<Command> commands = new ConcurrentLinkedQueue<>();
+
+    /**
+     * Add an entity at the next flush.
+     *
+     * @param e the entity to be added.
+     * @return this EntityCommandBuffer.
+     */
+    public EntityCommandBuffer spawn(Entity e) {
+        commands.add(new Command(Type.SPAWN, e, null));
+        return this;
+    }
+
+    /**
+     * Remove an entity at the next flush.
+     *
+     * @param e the entity to be removed.
+     * @return this EntityCommandBuffer.
+     */
+    public EntityCommandBuffer despawn(Entity e) {
+        commands.add(new Command(Type.DESPAWN, e, null));
+        return this;
+    }
+
+    /**
+     * Remove an entity at the next flush, and give it back to its pool.
+     *
+     * @param e    the entity to be removed.
+     * @param pool the pool the entity has been obtained from.
+     * @param <T>  the type of pooled entity.
+     * @return this EntityCommandBuffer.
+     */
+    public <T extends Entity> EntityCommandBuffer despawn(T e, EntityPool<T> pool) {
+        commands.add(new Command(Type.DESPAWN, e, pool));
+        return this;
+    }
+
+    public EntityCommandBuffer addComponent(Entity e, Object component) {
+        commands.add(new Command(Type.ADD_COMPONENT, e, component));
+        return this;
+    }
+
+    public EntityCommandBuffer removeComponent(Entity e, Class<?> type) {
+        commands.add(new Command(Type.REMOVE_COMPONENT, e, type));
+        return this;
+    }
+
+    /**
+     * Move an entity under a new parent at the next flush. A root entity becomes a child and
+     * leaves the managed entities; with a null parent, the entity becomes a managed root entity.
+     *
+     * @param e      the entity to be moved.
+     * @param parent the new parent, or null.
+     * @return this EntityCommandBuffer.
+     */
+    public EntityCommandBuffer reparent(Entity e, Entity parent) {
+        commands.add(new Command(Type.REPARENT, e, parent));
+        return this;
+    }
+
+    public boolean isEmpty() {
+        return commands.isEmpty();
+    }
+
+    public int size() {
+        return commands.size();
+    }
+
+    /**
+     * Apply all the queued commands, in the order they have been recorded. The commands
+     * recorded during the flush are applied too.
+     *
+     * @param game    the Game the entities belong to.
+     * @param manager the EntityManager to be updated.
+     * @return the number of applied commands.
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    int flush(Game game, EntityManager manager) {
+        int applied = 0;
+        Command c;
+        while ((c = commands.poll()) != null) {
+            switch (c.type) {
+                case SPAWN -> add(game, manager, c.entity);
+                case DESPAWN -> {
+                    remove(game, manager, c.entity);
+                    if (c.arg != null) {
+                        ((EntityPool) c.arg).free(c.entity);
+                    }
+                }
+                case ADD_COMPONENT -> manager.addComponent(c.entity, c.arg);
+                case REMOVE_COMPONENT -> manager.getComponents().remove(c.entity.id, (Class<?>) c.arg);
+                case REPARENT -> {
+                    Entity parent = (Entity) c.arg;
+                    if (c.entity.parent != null) {
+                        c.entity.parent.removeChild(c.entity);
+                    } else {
+                        remove(game, manager, c.entity);
+                    }
+                    if (parent != null) {
+                        parent.addChild(c.entity);
+                    } else {
+                        add(game, manager, c.entity);
+                    }
+                }
+            }
+            applied++;
+        }
+        return applied;
+    }
+
+    private void add(Game game, EntityManager manager, Entity e) {
+        if (game != null && e instanceof GameEntity ge) {
+            game.add(ge);
+        } else {
+            manager.add(e);
+        }
+    }
+
+    private void remove(Game game, EntityManager manager, Entity e) {
+        if (game != null && e instanceof GameEntity ge) {
+            game.remove(ge);
+        } else {
+            manager.remove(e);
+        }
+    }
+}
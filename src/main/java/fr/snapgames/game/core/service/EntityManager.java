@@ -1,34 +1,316 @@
 package fr.snapgames.game.core.service;
 
 import fr.snapgames.game.Game;
+import fr.snapgames.game.core.behavior.Behavior;
+import fr.snapgames.game.core.ecs.ComponentStore;
 import fr.snapgames.game.core.entity.Entity;
+import fr.snapgames.game.core.entity.GameEntity;
 
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.RandomAccess;
+import java.util.function.Predicate;
 
 /**
  * The Entity manager to ... manage entity.
+ * <p>
+ * Entities are kept in a dense array, to be iterated by index over packed references,
+ * and indexed by their id for an O(1) lookup of a {@link Entity#handle()}. Removing an
+ * entity moves the last one into its place, so the iteration order is the insertion order
+ * only as long as no entity has been removed. The name map is a secondary index.
  *
  * @author Frédéric Delorme
  * @since 2022
  */
 public class EntityManager {
+    private static final int NO_INDEX = -1;
+
     private Game game;
-    Map<String, Entity> entities = new HashMap<>();
+    final Map<String, Entity> entities = new HashMap<>();
+    private final Map<String, Entity> entitiesView = Collections.unmodifiableMap(entities);
+    /**
+     * Packed entities, valid in the range [0, count).
+     */
+    Entity[] dense = new Entity[64];
+    int count = 0;
+    /**
+     * Index of each entity in the dense array, indexed by entity id.
+     */
+    int[] sparse = new int[0];
+    /**
+     * A List view on the dense array, for the callers iterating by index.
+     */
+    List<Entity> entityList = new DenseList();
+    /**
+     * Components of the entities, stored by archetype.
+     */
+    ComponentStore components = new ComponentStore();
+    /**
+     * Changes requested during the frame, applied by {@link #flush()}.
+     */
+    EntityCommandBuffer commands = new EntityCommandBuffer();
+    /**
+     * Live views on the entities, by query key.
+     */
+    Map<Object, EntityView<?>> views = new HashMap<>();
+    /**
+     * Incremented on each add, remove or refresh of an entity.
+     */
+    int version = 0;
+    List<EntityView<?>> viewList = new ArrayList<>();
 
     public EntityManager(Game g) {
         game = g;
     }
 
+    /**
+     * Add an entity. An entity already using the same name is removed and replaced: a replaced
+     * {@link GameEntity} is removed through {@link Game#remove(GameEntity)}, to leave the physic
+     * engine and the world too.
+     *
+     * @param e the entity to be added.
+     */
     public void add(Entity e) {
+        Entity previous = entities.get(e.name);
+        if (previous == e) {
+            return;
+        }
+        if (previous != null) {
+            System.out.printf("WARN : EntityManager | entity name '%s' already used by #%d, replaced by #%d%n",
+                    e.name, previous.id, e.id);
+            if (game != null && previous instanceof GameEntity ge) {
+                game.remove(ge);
+            } else {
+                remove(previous);
+            }
+        }
+        if (e.id >= sparse.length) {
+            int old = sparse.length;
+            sparse = Arrays.copyOf(sparse, Math.max(e.id + 1, old * 2));
+            Arrays.fill(sparse, old, sparse.length, NO_INDEX);
+        }
+        if (count == dense.length) {
+            dense = Arrays.copyOf(dense, count * 2);
+        }
+        sparse[e.id] = count;
+        dense[count++] = e;
         entities.put(e.name, e);
+        for (int i = 0; i < viewList.size(); i++) {
+            viewList.get(i).offer(e);
+        }
+        version++;
+    }
+
+    /**
+     * Remove an entity and its components.
+     *
+     * @param e the entity to be removed.
+     */
+    public void remove(Entity e) {
+        int index = indexOf(e.id);
+        if (index == NO_INDEX || dense[index] != e) {
+            return;
+        }
+        Entity last = dense[--count];
+        dense[index] = last;
+        sparse[last.id] = index;
+        dense[count] = null;
+        sparse[e.id] = NO_INDEX;
+        if (entities.get(e.name) == e) {
+            entities.remove(e.name);
+        }
+        components.destroy(e.id);
+        for (int i = 0; i < viewList.size(); i++) {
+            viewList.get(i).remove(e);
+        }
+        version++;
+    }
+
+    /**
+     * Check again an entity against the views, after a change of its tags or behaviors.
+     *
+     * @param e the changed entity.
+     */
+    public void refresh(Entity e) {
+        if (indexOf(e.id) != NO_INDEX) {
+            for (int i = 0; i < viewList.size(); i++) {
+                viewList.get(i).offer(e);
+            }
+            version++;
+        }
+    }
+
+    /**
+     * Retrieve the live view on the entities of a type (subclasses included).
+     *
+     * @param type the entity type.
+     * @param <T>  the entity type.
+     * @return the EntityView.
+     */
+    @SuppressWarnings("unchecked")
+    public <T extends Entity> EntityView<T> query(Class<T> type) {
+        return (EntityView<T>) query(type, type::isInstance);
+    }
+
+    /**
+     * Retrieve the live view on the entities having a behavior of a type.
+     *
+     * @param type the behavior type.
+     * @return the EntityView.
+     */
+    public EntityView<Entity> queryBehavior(Class<? extends Behavior<?>> type) {
+        return query(List.of("behavior", type), e -> {
+            for (int i = 0; i < e.behaviors.size(); i++) {
+                if (type.isInstance(e.behaviors.get(i))) {
+                    return true;
+                }
+            }
+            return false;
+        });
+    }
+
+    /**
+     * Retrieve the live view on the entities having a tag.
+     *
+     * @param tag the tag.
+     * @return the EntityView.
+     */
+    public EntityView<Entity> queryTag(String tag) {
+        return query(List.of("tag", tag), e -> e.hasTag(tag));
+    }
+
+    /**
+     * Retrieve a live view on the entities matching a filter, created on first call
+     * for a key.
+     *
+     * @param key    the key identifying the view.
+     * @param filter the entity filter.
+     * @return the EntityView shared by all the callers using the same key.
+     */
+    @SuppressWarnings("unchecked")
+    public EntityView<Entity> query(Object key, Predicate<Entity> filter) {
+        EntityView<?> view = views.get(key);
+        if (view == null) {
+            EntityView<Entity> v = new EntityView<>(filter);
+            for (int i = 0; i < count; i++) {
+                v.offer(dense[i]);
+            }
+            views.put(key, v);
+            viewList.add(v);
+            view = v;
+        }
+        return (EntityView<Entity>) view;
     }
 
     public Entity get(String name) {
         return entities.get(name);
     }
 
+    /**
+     * Retrieve an entity from a handle.
+     *
+     * @param handle the handle retrieved by {@link Entity#handle()}.
+     * @return the entity, or null if the entity has been removed or recycled since.
+     */
+    public Entity get(long handle) {
+        int index = indexOf((int) handle);
+        if (index == NO_INDEX) {
+            return null;
+        }
+        Entity e = dense[index];
+        return e.isHandleOf(handle) ? e : null;
+    }
+
+    /**
+     * Retrieve the entities by name.
+     *
+     * @return a read-only live view: entities are added and removed through this EntityManager.
+     */
     public Map<String, Entity> getEntities() {
-        return entities;
+        return entitiesView;
+    }
+
+    /**
+     * Retrieve the entities as a list backed by the dense array.
+     *
+     * @return the list of entities.
+     */
+    public List<Entity> getEntityList() {
+        return entityList;
+    }
+
+    /**
+     * @return the version of the entities, incremented on each add, remove or refresh.
+     */
+    public int getVersion() {
+        return version;
+    }
+
+    public int getEntityCount() {
+        return count;
+    }
+
+    /**
+     * Add a component to an entity, stored in the {@link ComponentStore}.
+     *
+     * @param e         the entity.
+     * @param component the component to be added to the entity.
+     * @return the EntityManager.
+     */
+    public EntityManager addComponent(Entity e, Object component) {
+        components.add(e.id, component);
+        return this;
+    }
+
+    public <T> T getComponent(Entity e, Class<T> type) {
+        return components.get(e.id, type);
+    }
+
+    public ComponentStore getComponents() {
+        return components;
+    }
+
+    /**
+     * Retrieve the command buffer, to request changes on the entities while they are iterated.
+     *
+     * @return the EntityCommandBuffer applied on the next {@link #flush()}.
+     */
+    public EntityCommandBuffer getCommands() {
+        return commands;
+    }
+
+    /**
+     * Apply the queued commands. To be called at a sync point of the game loop, when
+     * no entity iteration is in progress.
+     *
+     * @return the number of applied commands.
+     */
+    public int flush() {
+        return commands.isEmpty() ? 0 : commands.flush(game, this);
+    }
+
+    private int indexOf(int id) {
+        return id >= 0 && id < sparse.length ? sparse[id] : NO_INDEX;
+    }
+
+    /**
+     * Read-only List view on the dense array.
+     */
+    private class DenseList extends AbstractList<Entity> implements RandomAccess {
+        @Override
+        public Entity get(int index) {
+            return dense[Objects.checkIndex(index, count)];
+        }
+
+        @Override
+        public int size() {
+            return count;
+        }
     }
 }
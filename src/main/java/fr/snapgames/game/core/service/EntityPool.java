@@ -0,0 +1,91 @@
+package fr.snapgames.game.core.service;
+
+import fr.snapgames.game.core.entity.Entity;
+
+import java.util.Arrays;
+import java.util.function.Function;
+
+/**
+ * A pool of recycled entities, for the scenes spawning and killing a lot of short-lived
+ * entities (bullets, particles, ...): a released entity is reset and handed out again by
+ * the next {@link #obtain(String)}, keeping its id, instead of being left to the GC.
+ * <p>
+ * Each release increments the entity {@link Entity#generation}, so that a reference kept
+ * with its {@link Entity#handle()} can be detected as stale with {@link Entity#isHandleOf(long)}.
+ *
+ * <pre>
+ * EntityPool&lt;GameEntity&gt; bullets = new EntityPool&lt;&gt;(GameEntity::new);
+ * GameEntity b = bullets.obtain("bullet_" + n);
+ * b.position.set(x, y);
+ * game.add(b);
+ * ...
+ * game.despawn(b, bullets);
+ * </pre>
+ *
+ * @param <T> the type of pooled entity.
+ * @author Frédéric Delorme
+ * @since 1.0.1
+ */
+public class EntityPool<T extends Entity> {
+
+    private final Function<String, T> factory;
+    private Entity[] free = new Entity[16];
+    private int freeCount = 0;
+    private int created = 0;
+
+    /**
+     * Create a new pool.
+     *
+     * @param factory the constructor of the new entities, from a name (e.g. <code>GameEntity::new</code>).
+     */
+    public EntityPool(Function<String, T> factory) {
+        this.factory = factory;
+    }
+
+    /**
+     * Retrieve a reset entity, recycled if any, new otherwise.
+     *
+     * @param name the name of the entity.
+     * @return the entity.
+     */
+    @SuppressWarnings("unchecked")
+    public T obtain(String name) {
+        if (freeCount == 0) {
+            created++;
+            return factory.apply(name);
+        }
+        T e = (T) free[--freeCount];
+        free[freeCount] = null;
+        e.name = name;
+        return e;
+    }
+
+    /**
+     * Give an entity back to the pool: it is reset, and its generation is incremented.
+     * The entity must not be used anymore by the caller.
+     *
+     * @param e the entity to be released.
+     */
+    public void free(T e) {
+        e.reset();
+        e.generation++;
+        if (freeCount == free.length) {
+            free = Arrays.copyOf(free, free.length * 2);
+        }
+        free[freeCount++] = e;
+    }
+
+    /**
+     * @return the number of entities waiting to be recycled.
+     */
+    public int getFreeCount() {
+        return freeCount;
+    }
+
+    /**
+     * @return the number of entities created by the pool since its creation.
+     */
+    public int getCreatedCount() {
+        return created;
+    }
+}
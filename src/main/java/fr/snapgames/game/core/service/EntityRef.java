@@ -0,0 +1,43 @@
+package fr.snapgames.game.core.service;
+
+import fr.snapgames.game.core.entity.Entity;
+
+/**
+ * A reference to an entity by its name, resolved once: the name lookup is only done
+ * the first time, and again if the referenced entity has been removed or recycled.
+ * Otherwise, {@link #get(EntityManager)} costs a handle check.
+ *
+ * <pre>
+ * private final EntityRef&lt;GameEntity&gt; player = new EntityRef&lt;&gt;("player");
+ * ...
+ * GameEntity p = player.get(game.getEntityManager());
+ * </pre>
+ *
+ * @param <T> the type of the referenced entity.
+ * @author Frédéric Delorme
+ * @since 1.0.1
+ */
+public class EntityRef<T extends Entity> {
+    public final String name;
+    private long handle = -1L;
+
+    public EntityRef(String name) {
+        this.name = name;
+    }
+
+    /**
+     * Retrieve the referenced entity.
+     *
+     * @param manager the EntityManager the entity belongs to.
+     * @return the entity, or null if no entity has this name.
+     */
+    @SuppressWarnings("unchecked")
+    public T get(EntityManager manager) {
+        Entity e = manager.get(handle);
+        if (e == null) {
+            e = manager.get(name);
+            handle = e != null ? e.handle() : -1L;
+        }
+        return (T) e;
+    }
+}
@@ -0,0 +1,83 @@
+package fr.snapgames.game.core.service;
+
+import fr.snapgames.game.core.entity.Entity;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.RandomAccess;
+import java.util.function.Predicate;
+
+/**
+ * A live, read-only view on the entities of the {@link EntityManager} matching a filter,
+ * retrieved with one of the <code>EntityManager.query</code> methods.
+ * <p>
+ * The view is maintained incrementally when entities are added or removed: iterating it by
+ * index costs no filtering at all. The filter is evaluated when the entity is added, so an
+ * entity changing its tags or behaviors afterwards must be signaled with
+ * {@link EntityManager#refresh(Entity)}.
+ *
+ * @param <T> the type of the entities in the view.
+ * @author Frédéric Delorme
+ * @since 1.0.1
+ */
+public class EntityView<T extends Entity> extends AbstractList<T> implements RandomAccess {
+    private static final int NO_INDEX = -1;
+
+    private final Predicate<Entity> filter;
+    private Entity[] entities = new Entity[16];
+    private int count = 0;
+    // index of each entity in the entities array, indexed by entity id.
+    private int[] index = new int[0];
+
+    EntityView(Predicate<Entity> filter) {
+        this.filter = filter;
+    }
+
+    /**
+     * Add the entity to the view if it matches the filter, remove it otherwise.
+     *
+     * @param e the entity to be checked.
+     */
+    void offer(Entity e) {
+        boolean matches = filter.test(e);
+        boolean present = e.id < index.length && index[e.id] != NO_INDEX;
+        if (matches && !present) {
+            if (e.id >= index.length) {
+                int old = index.length;
+                index = Arrays.copyOf(index, Math.max(e.id + 1, old * 2));
+                Arrays.fill(index, old, index.length, NO_INDEX);
+            }
+            if (count == entities.length) {
+                entities = Arrays.copyOf(entities, count * 2);
+            }
+            index[e.id] = count;
+            entities[count++] = e;
+        } else if (!matches && present) {
+            remove(e);
+        }
+    }
+
+    void remove(Entity e) {
+        if (e.id >= index.length || index[e.id] == NO_INDEX) {
+            return;
+        }
+        int i = index[e.id];
+        Entity last = entities[--count];
+        entities[i] = last;
+        index[last.id] = i;
+        entities[count] = null;
+        index[e.id] = NO_INDEX;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public T get(int i) {
+        return (T) entities[Objects.checkIndex(i, count)];
+    }
+
+    @Override
+    public int size() {
+        return count;
+    }
+}
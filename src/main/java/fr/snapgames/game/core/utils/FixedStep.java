@@ -0,0 +1,78 @@
+package fr.snapgames.game.core.utils;
+
+/**
+ * The {@link FixedStep} accumulates the measured frame durations and tells how many fixed
+ * physic steps must be processed for the frame, and the interpolation factor to render with.
+ * <p>
+ * Usage:
+ * <pre>
+ * int steps = fixedStep.advance(frameTime);
+ * for (int i = 0; i &lt; steps; i++) {
+ *     update(fixedStep.getStepSeconds());
+ * }
+ * draw(fixedStep.getAlpha());
+ * </pre>
+ *
+ * @author Frédéric Delorme
+ * @since 1.0.1
+ */
+public class FixedStep {
+
+    private final long stepNanos;
+    private final double stepSeconds;
+    private final int maxStepsPerFrame;
+    private long accumulator = 0;
+
+    /**
+     * Create a fixed step accumulator.
+     *
+     * @param stepRate         the number of physic steps per second.
+     * @param maxStepsPerFrame the maximum number of steps processed for one frame.
+     */
+    public FixedStep(double stepRate, int maxStepsPerFrame) {
+        this.stepNanos = (long) (1_000_000_000.0 / stepRate);
+        this.stepSeconds = stepNanos * 0.000000001;
+        this.maxStepsPerFrame = maxStepsPerFrame;
+    }
+
+    /**
+     * Add the duration of a frame to the accumulated time, and consume the steps it contains.
+     * When the loop is late, at most <code>maxStepsPerFrame</code> steps are returned and the
+     * remaining delay is dropped, to avoid the spiral of death.
+     *
+     * @param frameTime the frame duration, in nanoseconds.
+     * @return the number of steps to be processed for this frame.
+     */
+    public int advance(long frameTime) {
+        accumulator += frameTime;
+        int steps = (int) Math.min(accumulator / stepNanos, maxStepsPerFrame);
+        accumulator -= steps * stepNanos;
+        if (accumulator >= stepNanos) {
+            accumulator %= stepNanos;
+        }
+        return steps;
+    }
+
+    /**
+     * Retrieve the fraction of step not yet simulated, to interpolate between the 2 last physic states.
+     *
+     * @return the interpolation factor, in [0, 1).
+     */
+    public double getAlpha() {
+        return (double) accumulator / stepNanos;
+    }
+
+    /**
+     * @return the duration of a step, in seconds.
+     */
+    public double getStepSeconds() {
+        return stepSeconds;
+    }
+
+    /**
+     * @return the accumulated time not yet simulated, in nanoseconds.
+     */
+    public long getAccumulator() {
+        return accumulator;
+    }
+}
@@ -0,0 +1,190 @@
+package fr.snapgames.game.core.utils;
+
+import fr.snapgames.game.core.config.Configuration;
+
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * The {@link FrameProfiler} measures, with nanosecond timers, the time spent in
+ * each phase of a frame, and keeps a rolling window of the last samples per phase
+ * to compute latency percentiles (p50/p95/p99/max).
+ * <p>
+ * Usage:
+ * <pre>
+ * long start = profiler.start();
+ * // ... do the phase processing
+ * profiler.record(Phase.PHYSIC, start);
+ * </pre>
+ * <p>
+ * Each phase is expected to be recorded by only one thread; the statistics can be
+ * read from any thread.
+ *
+ * @author Frédéric Delorme
+ * @since 1.0.1
+ */
+public class FrameProfiler {
+
+    /**
+     * The frame phases measured by the profiler.
+     */
+    public enum Phase {
+        INPUT("input"),
+        PHYSIC("physic"),
+        BEHAVIORS("behaviors"),
+        SCENE_DRAW("scene draw"),
+        DEBUG_DRAW("debug draw"),
+        SHOW("show");
+
+        private final String label;
+
+        Phase(String label) {
+            this.label = label;
+        }
+
+        public String getLabel() {
+            return label;
+        }
+    }
+
+    private final boolean enabled;
+    private final String csvFilePath;
+    private final long[][] samples;
+    private final int[] sampleIndex;
+    private final long[] sampleCount;
+
+    /**
+     * Create the profiler from the <code>game.profiler.*</code> configuration keys.
+     *
+     * @param config the Game configuration.
+     */
+    public FrameProfiler(Configuration config) {
+        this(config.getBoolean("game.profiler.enabled", false),
+                config.getInteger("game.profiler.window", 300),
+                config.getString("game.profiler.csv", ""));
+    }
+
+    /**
+     * Create a new profiler.
+     *
+     * @param enabled     true to activate time measures.
+     * @param windowSize  number of samples kept per phase to compute percentiles.
+     * @param csvFilePath the file where statistics are written on exit ("" for none).
+     */
+    public FrameProfiler(boolean enabled, int windowSize, String csvFilePath) {
+        this.enabled = enabled;
+        this.csvFilePath = csvFilePath;
+        int nbPhases = Phase.values().length;
+        this.samples = new long[nbPhases][windowSize];
+        this.sampleIndex = new int[nbPhases];
+        this.sampleCount = new long[nbPhases];
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Start a time measure.
+     *
+     * @return the current time in nanoseconds, or 0 if the profiler is disabled.
+     */
+    public long start() {
+        return enabled ? System.nanoTime() : 0;
+    }
+
+    /**
+     * Record the time elapsed since <code>startTime</code> for the phase.
+     *
+     * @param phase     the measured phase.
+     * @param startTime the value returned by {@link #start()}.
+     */
+    public void record(Phase phase, long startTime) {
+        if (enabled) {
+            add(phase, System.nanoTime() - startTime);
+        }
+    }
+
+    /**
+     * Add a duration sample to the phase.
+     *
+     * @param phase    the measured phase.
+     * @param duration the duration in nanoseconds.
+     */
+    public void add(Phase phase, long duration) {
+        if (enabled) {
+            long[] ring = samples[phase.ordinal()];
+            synchronized (ring) {
+                int i = sampleIndex[phase.ordinal()];
+                ring[i] = duration;
+                sampleIndex[phase.ordinal()] = (i + 1) % ring.length;
+                sampleCount[phase.ordinal()]++;
+            }
+        }
+    }
+
+    /**
+     * Compute the latency percentiles of a phase over the rolling window.
+     *
+     * @param phase the phase to be analyzed.
+     * @return an array of 4 values in nanoseconds: p50, p95, p99 and max.
+     */
+    public long[] getPercentiles(Phase phase) {
+        long[] ring = samples[phase.ordinal()];
+        long[] sorted;
+        synchronized (ring) {
+            int size = (int) Math.min(sampleCount[phase.ordinal()], ring.length);
+            sorted = Arrays.copyOf(ring, size);
+        }
+        if (sorted.length == 0) {
+            return new long[]{0, 0, 0, 0};
+        }
+        Arrays.sort(sorted);
+        return new long[]{
+                percentile(sorted, 0.50),
+                percentile(sorted, 0.95),
+                percentile(sorted, 0.99),
+                sorted[sorted.length - 1]};
+    }
+
+    private long percentile(long[] sorted, double p) {
+        int i = (int) Math.ceil(p * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(i, sorted.length - 1))];
+    }
+
+    public long getSampleCount(Phase phase) {
+        return sampleCount[phase.ordinal()];
+    }
+
+    /**
+     * Write the statistics of all the phases to the <code>game.profiler.csv</code> file, if any.
+     */
+    public void dump() {
+        if (enabled && !csvFilePath.equals("")) {
+            writeCsv(csvFilePath);
+        }
+    }
+
+    /**
+     * Write the statistics of all the phases to a CSV file, with durations in milliseconds.
+     *
+     * @param filePath path of the CSV file to be written.
+     */
+    public void writeCsv(String filePath) {
+        try (PrintWriter pw = new PrintWriter(new FileWriter(filePath))) {
+            pw.println("phase,samples,p50_ms,p95_ms,p99_ms,max_ms");
+            for (Phase phase : Phase.values()) {
+                long[] p = getPercentiles(phase);
+                pw.println(String.format(Locale.ROOT, "%s,%d,%.4f,%.4f,%.4f,%.4f",
+                        phase.getLabel(), getSampleCount(phase),
+                        p[0] * 0.000001, p[1] * 0.000001, p[2] * 0.000001, p[3] * 0.000001));
+            }
+            System.out.printf("INFO : FrameProfiler | Statistics written to %s%n", filePath);
+        } catch (IOException e) {
+            System.err.printf("ERR : FrameProfiler | Unable to write statistics to %s: %s%n", filePath, e.getMessage());
+        }
+    }
+}
@@ -17,6 +17,7 @@ import fr.snapgames.game.core.scene.Scene;
 
 import java.awt.*;
 import java.util.Collection;
+import java.util.Random;
 
 public class DemoScene extends AbstractScene implements Scene {
 
@@ -43,6 +44,7 @@ public class DemoScene extends AbstractScene implements Scene {
         int worldWidth = config.getInteger("game.world.width", 1000);
         int worldHeight = config.getInteger("game.world.height", 1000);
         int screenWidth = config.getInteger("game.screen.width", 320);
+        Random random = g.getRandom();
 
         GameEntity player = (GameEntity) new GameEntity("player")
                 .setPosition(new Vector2D(worldWidth / 2.0, worldHeight / 2.0))
@@ -50,10 +52,10 @@ public class DemoScene extends AbstractScene implements Scene {
                 .setColor(Color.BLUE)
                 .setMass(80.0)
                 .setMaterial(new Material("playerMat", 1.0, 0.21, 1.0))
-                .setAttribute("maxSpeed", 800.0)
-                .setAttribute("maxAcceleration", 800.0)
-                .setAttribute("speedStep", 300.0)
-                .setAttribute("score", 0)
+                .setDouble(GameEntity.MAX_SPEED, 800.0)
+                .setDouble(GameEntity.MAX_ACCELERATION, 800.0)
+                .setDouble(PlayerInputBehavior.SPEED_STEP, 300.0)
+                .setInt(ScoreUpdateBehavior.SCORE, 0)
                 .addBehavior(new PlayerInputBehavior());
         add(player);
 
@@ -86,20 +88,20 @@ public class DemoScene extends AbstractScene implements Scene {
                 .setColor(new Color(0.0f, 0.5f, 0.8f, 0.5f)));
 
         for (int i = 0; i < 10; i++) {
-            double size = Math.random() * 24.0;
-            double attrDistance = 80.0 * Math.random() + 30.0;
+            double size = random.nextDouble() * 24.0;
+            double attrDistance = 80.0 * random.nextDouble() + 30.0;
             GameEntity e = (GameEntity) new GameEntity("en_" + i)
-                    .setPosition(new Vector2D(Math.random() * worldWidth, Math.random() * worldHeight))
+                    .setPosition(new Vector2D(random.nextDouble() * worldWidth, random.nextDouble() * worldHeight))
                     .setSize(new Vector2D(size, size))
                     .setColor(Color.RED)
                     .setType(EntityType.CIRCLE)
-                    .setMass(30.0 * Math.random() + 20.0)
+                    .setMass(30.0 * random.nextDouble() + 20.0)
                     .setMaterial(new Material("enemyMat", 1.1, 0.70, 1.0))
-                    .setAttribute("maxSpeed", 800.0)
-                    .setAttribute("maxAcceleration", 800.0)
-                    .setAttribute("attraction.distance", attrDistance)
-                    .setAttribute("attraction.release", attrDistance + Math.random() + 50.0)
-                    .setAttribute("attraction.force", 20.0 * Math.random() + 5.0)
+                    .setDouble(GameEntity.MAX_SPEED, 800.0)
+                    .setDouble(GameEntity.MAX_ACCELERATION, 800.0)
+                    .setDouble(EnemyFollowerBehavior.ATTRACTION_DISTANCE, attrDistance)
+                    .setDouble(EnemyFollowerBehavior.ATTRACTION_RELEASE, attrDistance + random.nextDouble() + 50.0)
+                    .setDouble(EnemyFollowerBehavior.ATTRACTION_FORCE, 20.0 * random.nextDouble() + 5.0)
                     .addBehavior(new EnemyFollowerBehavior());
             add(e);
         }
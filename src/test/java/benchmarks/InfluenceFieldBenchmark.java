@@ -0,0 +1,74 @@
+package benchmarks;
+
+import fr.snapgames.game.Game;
+import fr.snapgames.game.core.entity.GameEntity;
+import fr.snapgames.game.core.math.Vector2D;
+import fr.snapgames.game.core.math.physic.Influencer;
+import fr.snapgames.game.core.math.physic.InfluenceField;
+import fr.snapgames.game.core.math.physic.Material;
+
+import java.util.Random;
+
+/**
+ * Compare the physic step duration with the influencers looked up entity by entity, and with
+ * their effects baked into the {@link InfluenceField}, on 20000 bodies and 21 influencers. Both
+ * configurations run without collisions, sleeping and sub-stepping, and without the continuous
+ * collision detection, as the field is only used then.
+ * <p>
+ * This is not a test: run it from the project root after <code>mvn test-compile</code> with:
+ * <pre>
+ * java --add-modules jdk.incubator.vector -cp target/classes:target/test-classes benchmarks.InfluenceFieldBenchmark
+ * </pre>
+ *
+ * @author Frédéric Delorme
+ * @since 1.0.1
+ */
+public class InfluenceFieldBenchmark {
+
+    private static final double DT = 1.0 / 60.0;
+    private static final int BODIES = 20_000;
+    private static final int WARMUP = 300;
+    private static final int ROUNDS = 300;
+
+    public static void main(String[] args) {
+        System.out.printf("%-12s %12s%n", "influencers", "step");
+        for (String configuration : new String[]{"list", "field"}) {
+            Game game = createGame("/benchmarks/influence-" + configuration + ".properties");
+            for (int i = 0; i < WARMUP; i++) {
+                game.update(DT);
+            }
+            long start = System.nanoTime();
+            for (int i = 0; i < ROUNDS; i++) {
+                game.update(DT);
+            }
+            System.out.printf("%-12s %9.3f ms%n", configuration,
+                    (System.nanoTime() - start) / 1e6 / ROUNDS);
+        }
+        System.exit(0);
+    }
+
+    private static Game createGame(String configuration) {
+        Game game = new Game(configuration, true);
+        // 7x3 influencers covering the 640x400 play area.
+        for (int c = 0; c < 7; c++) {
+            for (int r = 0; r < 3; r++) {
+                Influencer i = new Influencer("i_" + c + "_" + r);
+                i.setPosition(new Vector2D(c * 90.0, r * 130.0))
+                        .setSize(new Vector2D(80, 120))
+                        .addForce(new Vector2D(c - 3.0, r - 1.0));
+                game.add(i);
+            }
+        }
+        Random random = new Random(1);
+        Material m = new Material("default", 1.0, 0.5, 0.98);
+        for (int i = 0; i < BODIES; i++) {
+            game.add(new GameEntity("b" + i)
+                    .setPosition(new Vector2D(random.nextDouble() * 636, random.nextDouble() * 396))
+                    .setSize(new Vector2D(2, 2))
+                    .setSpeed(new Vector2D(random.nextDouble() * 100 - 50, random.nextDouble() * 100 - 50))
+                    .setMass(10)
+                    .setMaterial(m));
+        }
+        return game;
+    }
+}
@@ -0,0 +1,75 @@
+package benchmarks;
+
+import fr.snapgames.game.Game;
+import fr.snapgames.game.core.entity.GameEntity;
+import fr.snapgames.game.core.math.Vector2D;
+import fr.snapgames.game.core.math.physic.Material;
+
+import java.util.Random;
+
+/**
+ * Compare the physic step cost per entity with the integration done entity by entity, with the scalar
+ * batch over the PhysicStore and with the SIMD batch, at 1k, 10k and 100k entities. Each column times
+ * the whole {@link Game#update(double)}, loading and storing back the PhysicStore included, so they
+ * compare the same work; all the configurations run without collisions, sleeping, sub-stepping and
+ * continuous collision detection.
+ * <p>
+ * This is not a test: run it from the project root after <code>mvn -Psimd test-compile</code> with:
+ * <pre>
+ * java --add-modules jdk.incubator.vector -cp target/classes:target/test-classes benchmarks.PhysicIntegratorBenchmark
+ * </pre>
+ * Without the <code>simd</code> profile or the Vector API, the "simd" column falls back to the scalar batch.
+ *
+ * @author Frédéric Delorme
+ * @since 1.0.1
+ */
+public class PhysicIntegratorBenchmark {
+
+    private static final double DT = 1.0 / 60.0;
+    // warm-up length in entity steps, to let the JIT compile the vectorized code.
+    private static final int WARMUP = 20_000_000;
+    private static final int ROUNDS = 200;
+    private static final String[] CONFIGURATIONS = {"entity", "batch", "simd"};
+
+    public static void main(String[] args) {
+        System.out.printf("%-10s %14s %14s %14s%n", "entities", CONFIGURATIONS[0], CONFIGURATIONS[1], CONFIGURATIONS[2]);
+        for (int count : new int[]{1_000, 10_000, 100_000}) {
+            double[] times = new double[CONFIGURATIONS.length];
+            for (int c = 0; c < CONFIGURATIONS.length; c++) {
+                Game game = createGame("/benchmarks/integrator-" + CONFIGURATIONS[c] + ".properties", count);
+                times[c] = measure(game, count);
+            }
+            System.out.printf("%-10d %11.2f ns %11.2f ns %11.2f ns%n", count, times[0], times[1], times[2]);
+        }
+        System.exit(0);
+    }
+
+    private static Game createGame(String configuration, int count) {
+        Game game = new Game(configuration, true);
+        Random random = new Random(1);
+        Material m = new Material("default", 1.0, 0.5, 0.98);
+        for (int i = 0; i < count; i++) {
+            game.add(new GameEntity("b" + i)
+                    .setPosition(new Vector2D(random.nextDouble() * 636, random.nextDouble() * 396))
+                    .setSize(new Vector2D(2, 2))
+                    .setSpeed(new Vector2D(random.nextDouble() * 100 - 50, random.nextDouble() * 100 - 50))
+                    .setMass(10)
+                    .setMaterial(m));
+        }
+        return game;
+    }
+
+    /**
+     * @return the mean step time per entity, in nanoseconds.
+     */
+    private static double measure(Game game, int count) {
+        for (int i = 0; i < Math.max(ROUNDS, WARMUP / count); i++) {
+            game.update(DT);
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < ROUNDS; i++) {
+            game.update(DT);
+        }
+        return (double) (System.nanoTime() - start) / ROUNDS / count;
+    }
+}
@@ -0,0 +1,20 @@
+package features;
+
+import fr.snapgames.game.core.utils.FixedStep;
+import io.cucumber.java8.En;
+
+import static org.junit.Assert.assertEquals;
+
+public class FixedStepStepdefs implements En {
+    private FixedStep fixedStep;
+    private int steps;
+
+    public FixedStepStepdefs() {
+        Given("a FixedStep of {double} steps per second with at most {int} steps per frame",
+                (Double stepRate, Integer maxSteps) -> fixedStep = new FixedStep(stepRate, maxSteps));
+        When("a frame of {int} ms is measured", (Integer ms) -> steps = fixedStep.advance(ms * 1_000_000L));
+        Then("{int} steps are processed", (Integer expected) -> assertEquals(expected.intValue(), steps));
+        And("the interpolation factor is {double}", (Double alpha) -> assertEquals(alpha, fixedStep.getAlpha(), 1e-9));
+        And("the accumulated time is {int} ms", (Integer ms) -> assertEquals(ms * 1_000_000L, fixedStep.getAccumulator()));
+    }
+}
@@ -0,0 +1,46 @@
+package features;
+
+import fr.snapgames.game.core.utils.FrameProfiler;
+import io.cucumber.java8.En;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class FrameProfilerStepdefs implements En {
+    private FrameProfiler profiler;
+    private List<String> csvLines;
+
+    public FrameProfilerStepdefs() {
+        Given("a FrameProfiler with a window of {int} samples",
+                (Integer window) -> profiler = new FrameProfiler(true, window, ""));
+        Given("a disabled FrameProfiler", () -> profiler = new FrameProfiler(false, 100, ""));
+        When("the durations {int} to {int} ms are added to the phase {string}",
+                (Integer from, Integer to, String phase) -> {
+                    for (long ms = from; ms <= to; ms++) {
+                        profiler.add(FrameProfiler.Phase.valueOf(phase), ms * 1_000_000L);
+                    }
+                });
+        When("the statistics are written to a CSV file", () -> {
+            File csv = File.createTempFile("profiler", ".csv");
+            csv.deleteOnExit();
+            profiler.writeCsv(csv.getPath());
+            csvLines = Files.readAllLines(csv.toPath());
+        });
+        Then("the phase {string} has {long} samples", (String phase, Long count) ->
+                assertEquals(count.longValue(), profiler.getSampleCount(FrameProfiler.Phase.valueOf(phase))));
+        And("the percentiles of the phase {string} are {long},{long},{long},{long} ms",
+                (String phase, Long p50, Long p95, Long p99, Long max) -> {
+                    long[] expected = Arrays.stream(new long[]{p50, p95, p99, max}).map(ms -> ms * 1_000_000L).toArray();
+                    assertArrayEquals(expected, profiler.getPercentiles(FrameProfiler.Phase.valueOf(phase)));
+                });
+        Then("the CSV file has {int} lines", (Integer lines) -> assertEquals(lines.intValue(), csvLines.size()));
+        And("the CSV file contains the line {string}",
+                (String line) -> assertTrue("missing line: " + line, csvLines.contains(line)));
+    }
+}
@@ -1,21 +1,160 @@
 package features;
 
 import fr.snapgames.game.Game;
+import fr.snapgames.game.core.behavior.Behavior;
+import fr.snapgames.game.core.behavior.BehaviorScheduler;
+import fr.snapgames.game.core.ecs.Query;
+import fr.snapgames.game.core.entity.AttributeKey;
+import fr.snapgames.game.core.entity.CameraEntity;
+import fr.snapgames.game.core.entity.Entity;
 import fr.snapgames.game.core.entity.GameEntity;
 import fr.snapgames.game.core.math.Vector2D;
+import fr.snapgames.game.core.service.EntityPool;
+import fr.snapgames.game.core.service.EntityView;
 import io.cucumber.java8.En;
 
+import java.awt.Dimension;
+import java.awt.Graphics2D;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertThrows;
 import static org.junit.Assert.assertTrue;
 
 public class GameEntityStepdefs implements En {
 
+    /**
+     * Count its updates, its level of detail is defined in the test.properties file.
+     */
+    static class CountingBehavior implements Behavior<Entity> {
+        int updates = 0;
+        double time = 0.0;
+
+        @Override
+        public void update(Game g, Entity e, double dt) {
+            updates++;
+            time += dt;
+        }
+
+        @Override
+        public void input(Game g, Entity e) {
+        }
+
+        @Override
+        public void draw(Game g, Entity e, Graphics2D g2d) {
+        }
+    }
+
+    /**
+     * Record its updates in a shared log as "class:entity".
+     */
+    static class RecordingBehavior implements Behavior<Entity> {
+        final List<String> log;
+
+        RecordingBehavior(List<String> log) {
+            this.log = log;
+        }
+
+        @Override
+        public void update(Game g, Entity e, double dt) {
+            log.add(getClass().getSimpleName().replace("Behavior", "") + ":" + e.name);
+        }
+
+        @Override
+        public void input(Game g, Entity e) {
+        }
+
+        @Override
+        public void draw(Game g, Entity e, Graphics2D g2d) {
+        }
+    }
+
+    static class FirstBehavior extends RecordingBehavior {
+        FirstBehavior(List<String> log) {
+            super(log);
+        }
+    }
+
+    static class SecondBehavior extends RecordingBehavior {
+        SecondBehavior(List<String> log) {
+            super(log);
+        }
+    }
+
+    /**
+     * Only write its own instance: can be updated in parallel.
+     */
+    static class ParallelCountingBehavior extends CountingBehavior {
+        @Override
+        public boolean isParallelSafe() {
+            return true;
+        }
+    }
+
     Game game;
+    EntityPool<GameEntity> pool;
+    List<String> behaviorLog = new ArrayList<>();
+    List<CountingBehavior> parallelCounters = new ArrayList<>();
+    BehaviorScheduler scheduler;
+    Map<String, GameEntity> spawned = new HashMap<>();
+    Map<String, Long> handles = new HashMap<>();
+    Map<String, CountingBehavior> counters = new HashMap<>();
 
     public GameEntityStepdefs() {
         Given("a Game is instantiated", () -> {
             game = (Game) TestContext.get("game", new Game("/test.properties", true));
         });
+        Given("a Game is instantiated with the {string} configuration", (String configuration) -> {
+            game = new Game("/" + configuration + ".properties", true);
+            TestContext.add("game", game);
+        });
+        Then("the entity list is {string}", (String names) -> {
+            game = (Game) TestContext.get("game");
+            List<Entity> entities = game.getEntityList();
+            StringBuilder list = new StringBuilder();
+            for (int i = 0; i < entities.size(); i++) {
+                list.append(i > 0 ? "," : "").append(entities.get(i).name);
+            }
+            assertEquals(names, list.toString());
+        });
+        When("I replace the GameEntity {string} by a new one at {double},{double}",
+                (String entityName, Double posX, Double posY) -> {
+                    game = (Game) TestContext.get("game");
+                    GameEntity previous = (GameEntity) game.getEntities().get(entityName);
+                    spawned.put(entityName, previous);
+                    TestContext.add("replaced.position", new Vector2D(previous.position.x, previous.position.y));
+                    game.add(new GameEntity(entityName).setPosition(new Vector2D(posX, posY)));
+                });
+        Then("the replaced GameEntity {string} has not moved", (String entityName) -> {
+            GameEntity e = spawned.get(entityName);
+            Vector2D position = (Vector2D) TestContext.get("replaced.position");
+            assertEquals(position.x, e.position.x, 0.0);
+            assertEquals(position.y, e.position.y, 0.0);
+            assertNotSame(e, game.getEntities().get(entityName));
+        });
+        When("I remove the GameEntity {string} from the EntityManager only", (String entityName) -> {
+            game = (Game) TestContext.get("game");
+            GameEntity removed = (GameEntity) game.getEntities().get(entityName);
+            spawned.put(entityName, removed);
+            TestContext.add("removed.position", new Vector2D(removed.position.x, removed.position.y));
+            game.getEntityManager().remove(removed);
+        });
+        Then("the removed GameEntity {string} has not moved", (String entityName) -> {
+            GameEntity e = spawned.get(entityName);
+            Vector2D position = (Vector2D) TestContext.get("removed.position");
+            assertEquals(position.x, e.position.x, 0.0);
+            assertEquals(position.y, e.position.y, 0.0);
+        });
         And("the entities map is empty", () -> {
             assertTrue(game.getEntities().isEmpty());
         });
@@ -38,6 +177,267 @@ public class GameEntityStepdefs implements En {
             GameEntity e = (GameEntity) game.getEntities().get(entityName);
             e.stickToCamera(true);
         });
+        And("the GameEntity {string} has a child {string} at {double},{double}",
+                (String entityName, String childName, Double posX, Double posY) -> {
+                    game = (Game) TestContext.get("game");
+                    GameEntity e = (GameEntity) game.getEntities().get(entityName);
+                    e.addChild(new GameEntity(childName).setPosition(new Vector2D(posX, posY)));
+                });
+        And("the GameEntity {string} is rotated by {double} degrees", (String entityName, Double angle) -> {
+            game = (Game) TestContext.get("game");
+            GameEntity e = (GameEntity) game.getEntities().get(entityName);
+            e.setRotation(Math.toRadians(angle));
+        });
+        When("I update the transform of the GameEntity {string}", (String entityName) -> {
+            game = (Game) TestContext.get("game");
+            GameEntity e = (GameEntity) game.getEntities().get(entityName);
+            e.updateTransform();
+        });
+        Then("the child {string} of {string} is at world position {double},{double}",
+                (String childName, String entityName, Double posX, Double posY) -> {
+                    GameEntity c = getChild(entityName, childName);
+                    assertEquals(posX, c.worldPosition.x, 0.001);
+                    assertEquals(posY, c.worldPosition.y, 0.001);
+                });
+        And("the child {string} of {string} transform is up to date", (String childName, String entityName) -> {
+            assertFalse(getChild(entityName, childName).isTransformDirty());
+        });
+        When("I add a {string} component {string} to the GameEntity {string}",
+                (String type, String value, String entityName) -> {
+                    game = (Game) TestContext.get("game");
+                    Entity e = game.getEntities().get(entityName);
+                    game.getEntityManager().addComponent(e, type.equals("Integer") ? Integer.valueOf(value) : value);
+                });
+        When("I remove the {string} component from the GameEntity {string}", (String type, String entityName) -> {
+            game = (Game) TestContext.get("game");
+            Entity e = game.getEntities().get(entityName);
+            game.getEntityManager().getComponents().remove(e.id, componentType(type));
+        });
+        Then("the query on {string} components matches {int} entities in {int} archetype",
+                (String types, Integer nbEntities, Integer nbArchetypes) -> {
+                    game = (Game) TestContext.get("game");
+                    Query q = game.getEntityManager().getComponents().query(
+                            Arrays.stream(types.split(",")).map(this::componentType).toArray(Class<?>[]::new));
+                    assertEquals(nbEntities.intValue(), q.count());
+                    assertEquals(nbArchetypes.intValue(), q.getArchetypes().size());
+                });
+        And("the {string} component of the GameEntity {string} is {string}",
+                (String type, String entityName, String value) -> {
+                    game = (Game) TestContext.get("game");
+                    Entity e = game.getEntities().get(entityName);
+                    assertEquals(value, String.valueOf(game.getEntityManager().getComponent(e, componentType(type))));
+                });
+        When("I set the attribute {string} of the GameEntity {string} to {double}",
+                (String attrName, String entityName, Double value) -> {
+                    game = (Game) TestContext.get("game");
+                    game.getEntities().get(entityName).setAttribute(attrName, value);
+                });
+        Then("the typed max speed of the GameEntity {string} is {double}", (String entityName, Double value) -> {
+            game = (Game) TestContext.get("game");
+            assertEquals(value, game.getEntities().get(entityName).getDouble(GameEntity.MAX_SPEED, 0.0), 0.0);
+        });
+        And("the attribute {string} of the GameEntity {string} is {double}",
+                (String attrName, String entityName, Double value) -> {
+                    game = (Game) TestContext.get("game");
+                    assertEquals(value, (Double) game.getEntities().get(entityName).getAttribute(attrName, 0.0), 0.0);
+                });
+        When("I set the attribute {string} of the GameEntity {string} to the integer {int}",
+                (String attrName, String entityName, Integer value) -> {
+                    game = (Game) TestContext.get("game");
+                    game.getEntities().get(entityName).setAttribute(attrName, value);
+                });
+        Then("the attribute {string} of the GameEntity {string} is the integer {int}",
+                (String attrName, String entityName, Integer value) -> {
+                    game = (Game) TestContext.get("game");
+                    assertEquals(value, game.getEntities().get(entityName).getAttribute(attrName, null));
+                });
+        And("the attribute {string} can be registered as a Double key", (String attrName) -> {
+            assertEquals(Double.class, AttributeKey.ofDouble(attrName).type);
+        });
+        Then("setting the attribute {string} of the GameEntity {string} to the text {string} is rejected",
+                (String attrName, String entityName, String value) -> {
+                    game = (Game) TestContext.get("game");
+                    Entity e = game.getEntities().get(entityName);
+                    assertThrows(IllegalArgumentException.class, () -> e.setAttribute(attrName, value));
+                });
+        And("a GameEntity pool", () -> {
+            pool = new EntityPool<>(GameEntity::new);
+        });
+        When("I spawn a pooled GameEntity named {string} at {double},{double}",
+                (String entityName, Double posX, Double posY) -> {
+                    game = (Game) TestContext.get("game");
+                    GameEntity e = pool.obtain(entityName);
+                    e.position.set(posX, posY);
+                    game.add(e);
+                    spawned.put(entityName, e);
+                    handles.put(entityName, e.handle());
+                });
+        And("I despawn the pooled GameEntity {string}", (String entityName) -> {
+            game = (Game) TestContext.get("game");
+            game.despawn(spawned.get(entityName), pool);
+            assertNull(game.getEntities().get(entityName));
+        });
+        Then("the pool has created {int} GameEntity", (Integer nbCreated) -> {
+            assertEquals(nbCreated.intValue(), pool.getCreatedCount());
+        });
+        And("the GameEntity {string} is the recycled {string}", (String entityName, String previousName) -> {
+            GameEntity e = (GameEntity) game.getEntities().get(entityName);
+            assertSame(spawned.get(previousName), e);
+            assertEquals(30.0, e.position.x, 0.0);
+            assertTrue(e.behaviors.isEmpty());
+        });
+        And("the handle on {string} is stale", (String entityName) -> {
+            assertFalse(spawned.get(entityName).isHandleOf(handles.get(entityName)));
+        });
+        And("the GameEntity {string} is replaced by a GameEntity {string} on its next update",
+                (String entityName, String newName) -> {
+                    game = (Game) TestContext.get("game");
+                    game.getEntities().get(entityName).addBehavior(new Behavior<Entity>() {
+                        @Override
+                        public void update(Game g, Entity e, double dt) {
+                            g.getEntityManager().getCommands()
+                                    .spawn(new GameEntity(newName))
+                                    .despawn(e);
+                        }
+
+                        @Override
+                        public void input(Game g, Entity e) {
+                        }
+
+                        @Override
+                        public void draw(Game g, Entity e, Graphics2D g2d) {
+                        }
+                    });
+                });
+        Then("the GameEntity {string} exists", (String entityName) -> {
+            game = (Game) TestContext.get("game");
+            assertNotNull(game.getEntities().get(entityName));
+        });
+        And("the GameEntity {string} does not exist", (String entityName) -> {
+            game = (Game) TestContext.get("game");
+            assertNull(game.getEntities().get(entityName));
+        });
+        And("the entities tagged {string} are queried", (String tag) -> {
+            game = (Game) TestContext.get("game");
+            TestContext.add("query." + tag, game.getEntityManager().queryTag(tag));
+        });
+        When("I Add a new GameEntity named {string} tagged {string}", (String entityName, String tag) -> {
+            game = (Game) TestContext.get("game");
+            game.add((GameEntity) new GameEntity(entityName).addTag(tag));
+        });
+        When("I remove the GameEntity {string}", (String entityName) -> {
+            game = (Game) TestContext.get("game");
+            game.remove((GameEntity) game.getEntities().get(entityName));
+        });
+        Then("the {string} query contains {int} entities", (String tag, Integer nbEntities) -> {
+            EntityView<?> view = (EntityView<?>) TestContext.get("query." + tag);
+            assertEquals(nbEntities.intValue(), view.size());
+        });
+        lodSteps();
+    }
+
+    private void lodSteps() {
+        And("the camera {string} of {int}x{int} at {double},{double} is the current one",
+                (String name, Integer width, Integer height, Double posX, Double posY) -> {
+                    game = (Game) TestContext.get("game");
+                    game.setCurrentCamera((CameraEntity) new CameraEntity(name)
+                            .setViewport(new Dimension(width, height))
+                            .setPosition(new Vector2D(posX, posY)));
+                });
+        When("I Add a new counted GameEntity named {string} at {double},{double}",
+                (String entityName, Double posX, Double posY) -> {
+                    game = (Game) TestContext.get("game");
+                    CountingBehavior counter = new CountingBehavior();
+                    counters.put(entityName, counter);
+                    game.add((GameEntity) new GameEntity(entityName)
+                            .setPosition(new Vector2D(posX, posY))
+                            .addBehavior(counter));
+                });
+        And("the GameEntity {string} has a counted child {string} at {double},{double}",
+                (String entityName, String childName, Double posX, Double posY) -> {
+                    game = (Game) TestContext.get("game");
+                    CountingBehavior counter = new CountingBehavior();
+                    counters.put(childName, counter);
+                    GameEntity e = (GameEntity) game.getEntities().get(entityName);
+                    e.addChild((GameEntity) new GameEntity(childName)
+                            .setPosition(new Vector2D(posX, posY))
+                            .addBehavior(counter));
+                });
+        And("the behaviors are updated {int} times with a {double} step", (Integer nbUpdates, Double dt) -> {
+            game = (Game) TestContext.get("game");
+            BehaviorScheduler scheduler = new BehaviorScheduler(game.getEntityManager(),
+                    game.getEntityManager().getEntityList())
+                    .setLod(game.getConfiguration());
+            for (int i = 0; i < nbUpdates; i++) {
+                scheduler.update(game, dt);
+            }
+        });
+        When("I Add a new GameEntity named {string} with the behaviors {string}",
+                (String entityName, String behaviors) -> {
+                    game = (Game) TestContext.get("game");
+                    GameEntity ge = new GameEntity(entityName);
+                    for (String name : behaviors.split(",")) {
+                        ge.addBehavior(name.equals("First")
+                                ? new FirstBehavior(behaviorLog)
+                                : new SecondBehavior(behaviorLog));
+                    }
+                    game.add(ge);
+                });
+        When("I Add {int} GameEntity with a parallel-safe counted behavior", (Integer nbEntities) -> {
+            game = (Game) TestContext.get("game");
+            for (int i = 0; i < nbEntities; i++) {
+                CountingBehavior counter = new ParallelCountingBehavior();
+                parallelCounters.add(counter);
+                game.add((GameEntity) new GameEntity("par_" + i).addBehavior(counter));
+            }
+        });
+        And("the behaviors are updated once by a scheduler", () -> {
+            game = (Game) TestContext.get("game");
+            scheduler = new BehaviorScheduler(game.getEntityManager(), game.getEntityManager().getEntityList());
+            scheduler.update(game, 0.016);
+        });
+        And("the behaviors are updated {int} times in parallel above {int} behaviors",
+                (Integer nbUpdates, Integer threshold) -> {
+                    game = (Game) TestContext.get("game");
+                    ForkJoinPool forkJoinPool = new ForkJoinPool(4);
+                    try {
+                        scheduler = new BehaviorScheduler(game.getEntityManager(),
+                                game.getEntityManager().getEntityList())
+                                .setParallel(forkJoinPool, threshold);
+                        for (int i = 0; i < nbUpdates; i++) {
+                            scheduler.update(game, 0.016);
+                        }
+                    } finally {
+                        forkJoinPool.shutdown();
+                    }
+                });
+        Then("the behaviors have been updated in the order {string}", (String order) -> {
+            assertEquals(order, String.join(",", behaviorLog));
+        });
+        And("the scheduler has {int} batch(es)", (Integer nbBatches) -> {
+            assertEquals(nbBatches.intValue(), scheduler.getBatchCount());
+        });
+        Then("all the parallel-safe behaviors have been updated {int} times", (Integer nbUpdates) -> {
+            assertFalse(parallelCounters.isEmpty());
+            for (CountingBehavior counter : parallelCounters) {
+                assertEquals(nbUpdates.intValue(), counter.updates);
+            }
+        });
+        Then("the GameEntity {string} has been updated {int} times", (String entityName, Integer nbUpdates) -> {
+            assertEquals(nbUpdates.intValue(), counters.get(entityName).updates);
+        });
+        And("the GameEntity {string} has been updated for {double} s", (String entityName, Double time) -> {
+            assertEquals(time, counters.get(entityName).time, 1e-9);
+        });
     }
 
+    private Class<?> componentType(String type) {
+        return type.equals("Integer") ? Integer.class : String.class;
+    }
+
+    private GameEntity getChild(String entityName, String childName) {
+        game = (Game) TestContext.get("game");
+        GameEntity e = (GameEntity) game.getEntities().get(entityName);
+        return (GameEntity) e.child.stream().filter(c -> c.name.equals(childName)).findFirst().orElseThrow();
+    }
 }
@@ -12,6 +12,10 @@ public class GameStepdefs implements En {
     Game game;
 
     public GameStepdefs() {
+        Before(() -> {
+            // each scenario starts with its own Game instance.
+            TestContext.clear();
+        });
         Then("I update {int} times the Game of {int} ms steps", (Integer nbUpdate, Integer step) -> {
             game = (Game) TestContext.get("game", new Game());
             World world = new World(
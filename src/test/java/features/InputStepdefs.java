@@ -0,0 +1,82 @@
+package features;
+
+import fr.snapgames.game.core.io.Input;
+import io.cucumber.java8.En;
+
+import java.awt.Canvas;
+import java.awt.Component;
+import java.awt.event.KeyEvent;
+import java.io.File;
+import java.util.Arrays;
+import java.util.BitSet;
+
+import static org.junit.Assert.assertEquals;
+
+public class InputStepdefs implements En {
+    private final Component source = new Canvas();
+    private Input input;
+    private File recordFile;
+
+    public InputStepdefs() {
+        Given("an Input recording to a temporary file with the seed {long} and a step rate of {double}",
+                (Long seed, Double stepRate) -> {
+                    recordFile = File.createTempFile("input", ".sgir");
+                    recordFile.deleteOnExit();
+                    input = new Input(null);
+                    input.startRecording(recordFile.getPath(), seed, stepRate);
+                });
+        When("the frames are recorded with the pressed keys {string}", (String frames) -> {
+            BitSet pressed = new BitSet();
+            for (String frame : frames.split("\\|", -1)) {
+                BitSet keys = parseKeys(frame);
+                for (int k = pressed.nextSetBit(0); k >= 0; k = pressed.nextSetBit(k + 1)) {
+                    if (!keys.get(k)) {
+                        input.keyReleased(keyEvent(KeyEvent.KEY_RELEASED, k));
+                    }
+                }
+                for (int k = keys.nextSetBit(0); k >= 0; k = keys.nextSetBit(k + 1)) {
+                    input.keyPressed(keyEvent(KeyEvent.KEY_PRESSED, k));
+                }
+                pressed = keys;
+                input.nextFrame();
+            }
+            input.stop();
+        });
+        And("the recorded file is replayed", () -> {
+            input = new Input(null);
+            input.startReplay(recordFile.getPath());
+        });
+        Then("the replay seed is {long} and the step rate is {double}", (Long seed, Double stepRate) -> {
+            assertEquals(Input.Mode.REPLAY, input.getMode());
+            assertEquals(seed.longValue(), input.getSeed());
+            assertEquals(stepRate, input.getStepRate(), 0.0);
+        });
+        And("the replayed frames have the pressed keys {string}", (String frames) -> {
+            String[] expected = frames.split("\\|", -1);
+            BitSet all = new BitSet();
+            Arrays.stream(expected).map(this::parseKeys).forEach(all::or);
+            for (int f = 0; f < expected.length; f++) {
+                input.nextFrame();
+                BitSet keys = parseKeys(expected[f]);
+                for (int k = all.nextSetBit(0); k >= 0; k = all.nextSetBit(k + 1)) {
+                    assertEquals("key " + k + " on frame " + f, keys.get(k), input.getKey(k));
+                }
+            }
+            input.stop();
+        });
+    }
+
+    private BitSet parseKeys(String frame) {
+        BitSet keys = new BitSet();
+        if (!frame.isEmpty()) {
+            for (String k : frame.split(",")) {
+                keys.set(Integer.parseInt(k.trim()));
+            }
+        }
+        return keys;
+    }
+
+    private KeyEvent keyEvent(int id, int code) {
+        return new KeyEvent(source, id, 0, 0, code, KeyEvent.CHAR_UNDEFINED);
+    }
+}
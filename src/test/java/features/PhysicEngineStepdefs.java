@@ -0,0 +1,287 @@
+package features;
+
+import fr.snapgames.game.Game;
+import fr.snapgames.game.core.entity.Entity;
+import fr.snapgames.game.core.entity.EntityType;
+import fr.snapgames.game.core.entity.GameEntity;
+import fr.snapgames.game.core.math.Vector2D;
+import fr.snapgames.game.core.math.physic.CollisionSystem;
+import fr.snapgames.game.core.math.physic.Contact;
+import fr.snapgames.game.core.math.physic.Influencer;
+import fr.snapgames.game.core.math.physic.Material;
+import io.cucumber.java8.En;
+
+import java.awt.Dimension;
+import java.awt.event.KeyEvent;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class PhysicEngineStepdefs implements En {
+
+    Game game;
+    CollisionSystem collisionSystem;
+    List<Entity> bodies = new ArrayList<>();
+    Map<String, GameEntity> bodiesByName = new HashMap<>();
+
+    public PhysicEngineStepdefs() {
+        collisionSteps();
+        integratorSteps();
+        And("I add {int} GameEntity with a default Material", (Integer nbEntities) -> {
+            game = (Game) TestContext.get("game");
+            Material m = new Material("default", 1.0, 0.5, 0.98);
+            for (int i = 0; i < nbEntities; i++) {
+                game.add(new GameEntity("en_" + i)
+                        .setPosition(new Vector2D((i % 10) * 32.0, (i / 10) * 20.0))
+                        .setSize(new Vector2D(8, 8))
+                        .setMaterial(m));
+            }
+        });
+        And("the GameEntity {string} has a default Material", (String name) -> {
+            game = (Game) TestContext.get("game");
+            GameEntity e = (GameEntity) game.getEntities().get(name);
+            e.setMaterial(new Material("default", 1.0, 0.5, 0.98));
+        });
+        And("the World has no friction", () -> {
+            game = (Game) TestContext.get("game");
+            game.getPhysicEngine().getWorld().setMaterial(new Material("none", 1.0, 1.0, 1.0));
+        });
+        And("the GameEntity {string} has a Material with elasticity {double} and friction {double}",
+                (String name, Double elasticity, Double friction) -> {
+                    game = (Game) TestContext.get("game");
+                    GameEntity e = (GameEntity) game.getEntities().get(name);
+                    e.setMaterial(new Material("test", 1.0, elasticity, friction));
+                });
+        And("the GameEntity {string} moves at {double},{double}", (String name, Double vx, Double vy) -> {
+            game = (Game) TestContext.get("game");
+            GameEntity e = (GameEntity) game.getEntities().get(name);
+            e.setSpeed(new Vector2D(vx, vy));
+        });
+        Then("the GameEntity {string} is at x {double}", (String name, Double x) -> {
+            game = (Game) TestContext.get("game");
+            GameEntity e = (GameEntity) game.getEntities().get(name);
+            assertEquals(x, e.position.x, 0.001);
+        });
+        Then("the GameEntity {string} is at y {double}", (String name, Double y) -> {
+            game = (Game) TestContext.get("game");
+            GameEntity e = (GameEntity) game.getEntities().get(name);
+            assertEquals(y, e.position.y, 0.000001);
+        });
+        And("the GameEntity {string} has a mass of {double}", (String name, Double mass) -> {
+            game = (Game) TestContext.get("game");
+            ((GameEntity) game.getEntities().get(name)).setMass(mass);
+        });
+        And("the GameEntity {string} is sub-stepped {int} times", (String name, Integer steps) -> {
+            game = (Game) TestContext.get("game");
+            game.getEntities().get(name).setAttribute("substeps", steps);
+        });
+        And("I apply a force of {double},{double} to the GameEntity {string}", (Double fx, Double fy, String name) -> {
+            game = (Game) TestContext.get("game");
+            GameEntity e = (GameEntity) game.getEntities().get(name);
+            e.applyForce(fx, fy);
+        });
+        And("I type the key {string}", (String key) -> {
+            game = (Game) TestContext.get("game");
+            game.keyTyped(new KeyEvent(game, KeyEvent.KEY_TYPED, 0, 0, KeyEvent.VK_UNDEFINED, key.charAt(0)));
+        });
+        Then("the GameEntity {string} is sleeping", (String name) -> {
+            game = (Game) TestContext.get("game");
+            assertTrue(((GameEntity) game.getEntities().get(name)).isSleeping());
+        });
+        And("the GameEntity {string} is not sleeping", (String name) -> {
+            game = (Game) TestContext.get("game");
+            assertFalse(((GameEntity) game.getEntities().get(name)).isSleeping());
+        });
+        And("I add an Influencer named {string} at {double},{double} sized {double},{double} with force {double},{double}",
+                (String name, Double x, Double y, Double width, Double height, Double fx, Double fy) -> {
+                    game = (Game) TestContext.get("game");
+                    Influencer i = new Influencer(name);
+                    i.setPosition(new Vector2D(x, y))
+                            .setSize(new Vector2D(width, height))
+                            .addForce(new Vector2D(fx, fy));
+                    game.add(i);
+                });
+        When("I replace the Influencer {string} by a new one with force {double},{double}",
+                (String name, Double fx, Double fy) -> {
+                    game = (Game) TestContext.get("game");
+                    Influencer previous = (Influencer) game.getEntities().get(name);
+                    TestContext.add("replaced." + name, previous);
+                    Influencer i = new Influencer(name);
+                    i.setPosition(new Vector2D(previous.position.x, previous.position.y))
+                            .setSize(new Vector2D(previous.size.x, previous.size.y))
+                            .addForce(new Vector2D(fx, fy));
+                    game.add(i);
+                });
+        Then("the World has {int} influencer(s)", (Integer nbInfluencers) -> {
+            game = (Game) TestContext.get("game");
+            assertEquals(nbInfluencers.intValue(), game.getPhysicEngine().getWorld().getInfluencers().size());
+        });
+        And("the replaced Influencer {string} is not in the World", (String name) -> {
+            game = (Game) TestContext.get("game");
+            Object previous = TestContext.get("replaced." + name);
+            assertFalse(game.getPhysicEngine().getWorld().getInfluencers().contains(previous));
+        });
+        And("I run the PhysicEngine {int} times with {int} ms steps", (Integer nbSteps, Integer step) -> {
+            game = (Game) TestContext.get("game");
+            for (int i = 0; i < nbSteps; i++) {
+                game.update(step * 0.001);
+            }
+        });
+        Then("the PhysicEngine allocates no memory during {int} steps of {int} ms", (Integer nbSteps, Integer step) -> {
+            game = (Game) TestContext.get("game");
+            com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+            long threadId = Thread.currentThread().getId();
+            // a JIT deoptimization re-allocates the objects it had eliminated: keep the
+            // best of a few measures, once the compiled code is stable.
+            long allocated = Long.MAX_VALUE;
+            for (int round = 0; round < 5 && allocated > 0; round++) {
+                // two consecutive calls measure the cost of the measure itself.
+                long start = threads.getThreadAllocatedBytes(threadId);
+                long before = threads.getThreadAllocatedBytes(threadId);
+                long overhead = before - start;
+                for (int i = 0; i < nbSteps; i++) {
+                    game.update(step * 0.001);
+                }
+                allocated = threads.getThreadAllocatedBytes(threadId) - before - overhead;
+            }
+            assertEquals("allocated bytes during physic update", 0L, allocated);
+        });
+    }
+
+    private void collisionSteps() {
+        Given("a CollisionSystem", () -> {
+            collisionSystem = new CollisionSystem();
+        });
+        Given("a CollisionSystem waking the bodies above {double}", (Double speed) -> {
+            collisionSystem = new CollisionSystem().setWakeSpeed(speed);
+        });
+        And("the body {string} is sleeping", (String name) -> {
+            bodiesByName.get(name).sleeping = true;
+        });
+        And("the body {string} is at {double},{double}", (String name, Double x, Double y) -> {
+            GameEntity e = bodiesByName.get(name);
+            assertEquals(x, e.position.x, 1e-9);
+            assertEquals(y, e.position.y, 1e-9);
+        });
+        And("the body {string} is still sleeping", (String name) -> {
+            assertTrue(bodiesByName.get(name).isSleeping());
+        });
+        And("a {word} body {string} at {double},{double} sized {double},{double} moving at {double},{double}",
+                (String type, String name, Double x, Double y, Double width, Double height, Double vx, Double vy) -> {
+                    GameEntity e = new GameEntity(name)
+                            .setType(EntityType.valueOf(type))
+                            .setPosition(new Vector2D(x, y))
+                            .setSize(new Vector2D(width, height))
+                            .setSpeed(new Vector2D(vx, vy))
+                            .setMass(1.0)
+                            .setMaterial(new Material("bouncing", 1.0, 1.0, 1.0));
+                    bodies.add(e);
+                    bodiesByName.put(name, e);
+                });
+        When("the collisions are resolved", () -> {
+            collisionSystem.update(bodies);
+        });
+        Then("there is {int} contact(s)", (Integer nbContacts) -> {
+            assertEquals(nbContacts.intValue(), collisionSystem.getContacts().size());
+        });
+        And("the contact goes from {string} to {string} along {double},{double} with a penetration of {double}",
+                (String from, String to, Double nx, Double ny, Double penetration) -> {
+                    Contact c = collisionSystem.getContacts().get(0);
+                    assertEquals(from, c.a.name);
+                    assertEquals(to, c.b.name);
+                    assertEquals(nx, c.nx, 1e-9);
+                    assertEquals(ny, c.ny, 1e-9);
+                    assertEquals(penetration, c.penetration, 1e-9);
+                });
+        And("the body {string} moves at {double},{double}", (String name, Double vx, Double vy) -> {
+            GameEntity e = bodiesByName.get(name);
+            assertEquals(vx, e.speed.x, 1e-9);
+            assertEquals(vy, e.speed.y, 1e-9);
+        });
+        Then("the GameEntity {string} is inside the play area", (String name) -> {
+            game = (Game) TestContext.get("game");
+            GameEntity e = (GameEntity) game.getEntities().get(name);
+            Dimension playArea = game.getPhysicEngine().getWorld().getPlayArea();
+            assertTrue(e.position.x >= 0 && e.position.x + e.size.x <= playArea.width);
+            assertTrue(e.position.y >= 0 && e.position.y + e.size.y <= playArea.height);
+        });
+    }
+
+    private void integratorSteps() {
+        When("{int} bodies are integrated {int} times with the {string} and the {string} configurations",
+                (Integer nbBodies, Integer nbSteps, String reference, String other) -> {
+                    TestContext.add("integrated.reference",
+                            integrate("/" + reference + ".properties", nbBodies, nbSteps, false));
+                    TestContext.add("integrated.other",
+                            integrate("/" + other + ".properties", nbBodies, nbSteps, false));
+                });
+        When("{int} bodies inside an influencer are integrated {int} times with the {string} and the {string} configurations",
+                (Integer nbBodies, Integer nbSteps, String reference, String other) -> {
+                    TestContext.add("integrated.reference",
+                            integrate("/" + reference + ".properties", nbBodies, nbSteps, true));
+                    TestContext.add("integrated.other",
+                            integrate("/" + other + ".properties", nbBodies, nbSteps, true));
+                });
+        And("all the bodies are pushed by the influencer", () -> {
+            Game other = (Game) TestContext.get("integrated.other");
+            List<Entity> entities = other.getEntityList();
+            for (int i = 0; i < entities.size(); i++) {
+                if (!(entities.get(i) instanceof Influencer)) {
+                    GameEntity e = (GameEntity) entities.get(i);
+                    assertTrue(e.name + " pushed", e.speed.x > 0.0);
+                }
+            }
+        });
+        Then("all the bodies are at the same position", () -> {
+            Game reference = (Game) TestContext.get("integrated.reference");
+            Game other = (Game) TestContext.get("integrated.other");
+            List<Entity> entities = reference.getEntityList();
+            for (int i = 0; i < entities.size(); i++) {
+                GameEntity r = (GameEntity) entities.get(i);
+                GameEntity o = (GameEntity) other.getEntities().get(r.name);
+                assertEquals(r.name + " x", r.position.x, o.position.x, 0.0);
+                assertEquals(r.name + " y", r.position.y, o.position.y, 0.0);
+            }
+        });
+    }
+
+    /**
+     * Run the same set of bodies, and an influencer, in a Game created on a configuration file.
+     * The bodies are moving all over the play area, or resting well inside the influencer.
+     */
+    private Game integrate(String configuration, int nbBodies, int nbSteps, boolean inside) {
+        Game g = new Game(configuration, true);
+        Random random = new Random(1);
+        Material m = new Material("default", 1.0, 0.5, 0.98);
+        Influencer wind = new Influencer("wind");
+        wind.setPosition(new Vector2D(0, 0))
+                .setSize(new Vector2D(320, 200))
+                .addForce(new Vector2D(0.5, 0.0));
+        g.add(wind);
+        for (int i = 0; i < nbBodies; i++) {
+            Vector2D position = inside
+                    ? new Vector2D(64 + random.nextDouble() * 192, 32 + random.nextDouble() * 96)
+                    : new Vector2D(random.nextDouble() * 600, random.nextDouble() * 360);
+            Vector2D speed = inside
+                    ? new Vector2D()
+                    : new Vector2D(random.nextDouble() * 200 - 100, random.nextDouble() * 200 - 100);
+            g.add(new GameEntity("body_" + i)
+                    .setPosition(position)
+                    .setSize(new Vector2D(8, 8))
+                    .setSpeed(speed)
+                    .setMass(1.0 + random.nextDouble() * 10)
+                    .setMaterial(m));
+        }
+        for (int i = 0; i < nbSteps; i++) {
+            g.update(0.016);
+        }
+        return g;
+    }
+}
@@ -0,0 +1,136 @@
+package features;
+
+import fr.snapgames.game.Game;
+import fr.snapgames.game.core.behavior.Behavior;
+import fr.snapgames.game.core.entity.Entity;
+import fr.snapgames.game.core.entity.GameEntity;
+import fr.snapgames.game.core.gfx.RenderSnapshot;
+import fr.snapgames.game.core.gfx.Renderer;
+import fr.snapgames.game.core.gfx.plugins.RendererPlugin;
+import io.cucumber.java8.En;
+
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+public class RendererStepdefs implements En {
+
+    /**
+     * Record the names of the drawn GameEntity.
+     */
+    static class RecordingDrawPlugin implements RendererPlugin<GameEntity> {
+        final List<String> drawn = new ArrayList<>();
+
+        @Override
+        public Class<GameEntity> entityType() {
+            return GameEntity.class;
+        }
+
+        @Override
+        public void draw(Graphics2D g, GameEntity e) {
+            drawn.add(e.name);
+        }
+    }
+
+    /**
+     * Record the names of the entities its draw is called for, and declare a draw extent.
+     */
+    static class RecordingDrawBehavior implements Behavior<Entity> {
+        final List<String> drawn;
+        final double extent;
+
+        RecordingDrawBehavior(List<String> drawn, double extent) {
+            this.drawn = drawn;
+            this.extent = extent;
+        }
+
+        @Override
+        public void update(Game g, Entity e, double dt) {
+        }
+
+        @Override
+        public void input(Game g, Entity e) {
+        }
+
+        @Override
+        public void draw(Game g, Entity e, Graphics2D g2d) {
+            drawn.add(e.name);
+        }
+
+        @Override
+        public double getDrawExtent(Game g, Entity e) {
+            return extent;
+        }
+    }
+
+    private final RecordingDrawPlugin plugin = new RecordingDrawPlugin();
+    private final List<String> drawnBehaviors = new ArrayList<>();
+    private final RenderSnapshot snapshot = new RenderSnapshot();
+    private int[] liveFrame;
+    private int[] snapshotFrame;
+
+    public RendererStepdefs() {
+        And("all the entities have a recording draw behavior", () -> {
+            Game game = (Game) TestContext.get("game");
+            for (Entity e : game.getEntityList()) {
+                e.addBehavior(new RecordingDrawBehavior(drawnBehaviors, 0.0));
+            }
+        });
+        And("the GameEntity {string} has a recording draw behavior reaching {double}",
+                (String entityName, Double extent) -> {
+                    Game game = (Game) TestContext.get("game");
+                    game.getEntities().get(entityName).addBehavior(new RecordingDrawBehavior(drawnBehaviors, extent));
+                });
+        And("the transforms of the entities are updated", () -> {
+            Game game = (Game) TestContext.get("game");
+            for (Entity e : game.getEntityList()) {
+                ((GameEntity) e).updateTransform();
+            }
+        });
+        When("the Renderer draws a frame", () -> {
+            Game game = (Game) TestContext.get("game");
+            Renderer renderer = new Renderer(game);
+            renderer.addPlugin(plugin);
+            renderer.draw(game, null, 60);
+        });
+        When("the Renderer draws a live frame", () -> {
+            Game game = (Game) TestContext.get("game");
+            Renderer renderer = new Renderer(game);
+            renderer.draw(game, null, game.getRealFPS());
+            liveFrame = pixels(renderer.getBuffer());
+        });
+        And("the game is captured into a snapshot", () -> {
+            snapshot.capture((Game) TestContext.get("game"));
+        });
+        And("the GameEntity {string} is moved to {double},{double}", (String entityName, Double x, Double y) -> {
+            Game game = (Game) TestContext.get("game");
+            GameEntity e = (GameEntity) game.getEntities().get(entityName);
+            e.position.x = x;
+            e.position.y = y;
+            e.updateTransform();
+        });
+        And("the Renderer draws the snapshot", () -> {
+            Game game = (Game) TestContext.get("game");
+            Renderer renderer = new Renderer(game);
+            renderer.draw(game, snapshot);
+            snapshotFrame = pixels(renderer.getBuffer());
+        });
+        Then("the snapshot frame is the live frame", () -> {
+            assertArrayEquals(liveFrame, snapshotFrame);
+        });
+        Then("the drawn entities are {string}", (String names) -> {
+            assertEquals(names, String.join(",", plugin.drawn));
+        });
+        And("the drawn behaviors are {string}", (String names) -> {
+            assertEquals(names, String.join(",", drawnBehaviors));
+        });
+    }
+
+    private static int[] pixels(BufferedImage image) {
+        return image.getRGB(0, 0, image.getWidth(), image.getHeight(), null, 0, image.getWidth());
+    }
+}
@@ -0,0 +1,29 @@
+package features;
+
+import fr.snapgames.game.core.math.SpatialGrid;
+import io.cucumber.java8.En;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+public class SpatialGridStepdefs implements En {
+    private SpatialGrid<String> grid;
+    private final List<String> result = new ArrayList<>();
+    // the grid indexes its items by identity: the item names are interned.
+
+    public SpatialGridStepdefs() {
+        Given("a SpatialGrid of {int}x{int} with cells of {double}",
+                (Integer width, Integer height, Double cellSize) -> grid = new SpatialGrid<>(width, height, cellSize));
+        When("the item {string} is put at {double},{double} with a size of {double}x{double}",
+                (String item, Double x, Double y, Double w, Double h) -> grid.put(item.intern(), x, y, w, h));
+        When("the item {string} is removed from the grid", (String item) -> grid.remove(item.intern()));
+        Then("the grid has {int} items", (Integer size) -> assertEquals(size.intValue(), grid.size()));
+        And("the query {double},{double} of {double}x{double} returns {string}",
+                (Double x, Double y, Double w, Double h, String items) -> {
+                    grid.query(x, y, w, h, result);
+                    assertEquals(items, String.join(",", result));
+                });
+    }
+}
@@ -0,0 +1,26 @@
+Feature: U600 - the Game has a fixed step loop
+
+  The fixed step loop updates the physic at a constant rate, whatever the frame duration is,
+  and renders with the fraction of step not yet simulated.
+
+  Scenario: U601 - the frame durations are accumulated into fixed steps
+    Given a FixedStep of 100.0 steps per second with at most 5 steps per frame
+    When a frame of 25 ms is measured
+    Then 2 steps are processed
+    And the interpolation factor is 0.5
+    When a frame of 5 ms is measured
+    Then 1 steps are processed
+    And the interpolation factor is 0.0
+
+  Scenario: U602 - a short frame processes no step
+    Given a FixedStep of 100.0 steps per second with at most 5 steps per frame
+    When a frame of 4 ms is measured
+    Then 0 steps are processed
+    And the interpolation factor is 0.4
+
+  Scenario: U603 - a late frame is clamped to the maximum steps per frame
+    Given a FixedStep of 100.0 steps per second with at most 5 steps per frame
+    When a frame of 123 ms is measured
+    Then 5 steps are processed
+    And the interpolation factor is 0.3
+    And the accumulated time is 3 ms
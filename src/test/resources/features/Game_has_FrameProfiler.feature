@@ -0,0 +1,31 @@
+Feature: U700 - the Game has a FrameProfiler
+
+  The FrameProfiler keeps a rolling window of the phase durations and computes their latency percentiles.
+
+  Scenario: U701 - the percentiles are computed on the phase samples
+    Given a FrameProfiler with a window of 100 samples
+    When the durations 1 to 100 ms are added to the phase "PHYSIC"
+    Then the phase "PHYSIC" has 100 samples
+    And the percentiles of the phase "PHYSIC" are 50,95,99,100 ms
+    And the percentiles of the phase "INPUT" are 0,0,0,0 ms
+
+  Scenario: U702 - only the last samples of the window are kept
+    Given a FrameProfiler with a window of 10 samples
+    When the durations 1 to 20 ms are added to the phase "SHOW"
+    Then the phase "SHOW" has 20 samples
+    And the percentiles of the phase "SHOW" are 15,20,20,20 ms
+
+  Scenario: U703 - a disabled FrameProfiler does not record anything
+    Given a disabled FrameProfiler
+    When the durations 1 to 20 ms are added to the phase "PHYSIC"
+    Then the phase "PHYSIC" has 0 samples
+    And the percentiles of the phase "PHYSIC" are 0,0,0,0 ms
+
+  Scenario: U704 - the statistics are written to a CSV file
+    Given a FrameProfiler with a window of 100 samples
+    When the durations 1 to 100 ms are added to the phase "PHYSIC"
+    And the statistics are written to a CSV file
+    Then the CSV file has 7 lines
+    And the CSV file contains the line "phase,samples,p50_ms,p95_ms,p99_ms,max_ms"
+    And the CSV file contains the line "physic,100,50.0000,95.0000,99.0000,100.0000"
+    And the CSV file contains the line "input,0,0.0000,0.0000,0.0000,0.0000"
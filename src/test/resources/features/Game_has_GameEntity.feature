@@ -8,3 +8,142 @@ Feature: U100 - the Game has GameEntity
     Then I Add a new GameEntity named "player"
     And the entities map size is 1
 
+
+  Scenario: U102 - a child GameEntity follows the transform of its parent
+    Given a Game is instantiated
+    And I Add a new GameEntity named "tank" at 100.0,100.0
+    And the GameEntity "tank" has a child "turret" at 10.0,0.0
+    And the GameEntity "tank" is rotated by 90.0 degrees
+    When I update the transform of the GameEntity "tank"
+    Then the child "turret" of "tank" is at world position 100.0,110.0
+    And the child "turret" of "tank" transform is up to date
+
+
+  Scenario: U103 - entities sharing the same components are stored in the same archetype
+    Given a Game is instantiated
+    And I Add a new GameEntity named "hero"
+    And I Add a new GameEntity named "ghost"
+    When I add a "String" component "name" to the GameEntity "hero"
+    And I add a "Integer" component "10" to the GameEntity "hero"
+    And I add a "String" component "boo" to the GameEntity "ghost"
+    And I add a "Integer" component "20" to the GameEntity "ghost"
+    Then the query on "String,Integer" components matches 2 entities in 1 archetype
+    When I remove the "String" component from the GameEntity "ghost"
+    Then the query on "String,Integer" components matches 1 entities in 1 archetype
+    And the "Integer" component of the GameEntity "ghost" is "20"
+
+  Scenario: U104 - an attribute set by name is read through its typed key
+    Given a Game is instantiated
+    And I Add a new GameEntity named "runner"
+    When I set the attribute "maxSpeed" of the GameEntity "runner" to 42.0
+    Then the typed max speed of the GameEntity "runner" is 42.0
+    And the attribute "maxSpeed" of the GameEntity "runner" is 42.0
+
+  Scenario: U105 - a despawned GameEntity is recycled by its pool
+    Given a Game is instantiated
+    And a GameEntity pool
+    When I spawn a pooled GameEntity named "bullet_1" at 10.0,20.0
+    And I despawn the pooled GameEntity "bullet_1"
+    And I spawn a pooled GameEntity named "bullet_2" at 30.0,40.0
+    Then the pool has created 1 GameEntity
+    And the GameEntity "bullet_2" is the recycled "bullet_1"
+    And the handle on "bullet_1" is stale
+
+  Scenario: U106 - a behavior spawns and despawns entities through the command buffer
+    Given a Game is instantiated
+    And I Add a new GameEntity named "spawner" at 10.0,10.0
+    And the GameEntity "spawner" has a default Material
+    And the GameEntity "spawner" is replaced by a GameEntity "egg" on its next update
+    When I run the PhysicEngine 1 times with 16 ms steps
+    Then the GameEntity "egg" exists
+    And the GameEntity "spawner" does not exist
+
+  Scenario: U107 - a tag query is a live view on the entities
+    Given a Game is instantiated
+    And the entities tagged "enemy" are queried
+    When I Add a new GameEntity named "orc" tagged "enemy"
+    And I Add a new GameEntity named "elf" tagged "friend"
+    And I Add a new GameEntity named "troll" tagged "enemy"
+    Then the "enemy" query contains 2 entities
+    When I remove the GameEntity "orc"
+    Then the "enemy" query contains 1 entities
+
+  Scenario: U108 - the behaviors of the entities far from the camera are updated less often
+    Given a Game is instantiated with the "test-lod" configuration
+    And the camera "cam" of 200x200 at 0.0,0.0 is the current one
+    When I Add a new counted GameEntity named "near" at 50.0,50.0
+    And I Add a new counted GameEntity named "mid" at 400.0,50.0
+    And I Add a new counted GameEntity named "far" at 1000.0,50.0
+    And the behaviors are updated 8 times with a 0.125 step
+    Then the GameEntity "near" has been updated 8 times
+    And the GameEntity "near" has been updated for 1.0 s
+    And the GameEntity "mid" has been updated 2 times
+    And the GameEntity "far" has been updated 0 times
+
+  Scenario: U109 - a removed entity is replaced by the last one in the entity list
+    Given a Game is instantiated
+    Then I Add a new GameEntity named "a"
+    And I Add a new GameEntity named "b"
+    And I Add a new GameEntity named "c"
+    And I Add a new GameEntity named "d"
+    When I remove the GameEntity "b"
+    Then the entity list is "a,d,c"
+
+  Scenario Outline: U110 - a GameEntity replaced by another one with the same name is not integrated anymore
+    Given a Game is instantiated with the "<configuration>" configuration
+    And I Add a new GameEntity named "crate" at 100.0,100.0
+    And the GameEntity "crate" has a default Material
+    And the GameEntity "crate" has a mass of 10.0
+    And I run the PhysicEngine 2 times with 16 ms steps
+    When I replace the GameEntity "crate" by a new one at 200.0,100.0
+    And the GameEntity "crate" has a default Material
+    And I run the PhysicEngine 10 times with 16 ms steps
+    Then the replaced GameEntity "crate" has not moved
+    And the entity list is "crate"
+
+    Examples:
+      | configuration |
+      | test          |
+      | test-batch    |
+
+  Scenario: U111 - the behaviors are updated class by class, keeping the entity order in each class
+    Given a Game is instantiated
+    When I Add a new GameEntity named "a" with the behaviors "First,Second"
+    And I Add a new GameEntity named "b" with the behaviors "Second"
+    And I Add a new GameEntity named "c" with the behaviors "First"
+    And I Add a new GameEntity named "d" with the behaviors "Second,First"
+    And the behaviors are updated once by a scheduler
+    Then the behaviors have been updated in the order "First:a,First:c,First:d,Second:a,Second:b,Second:d"
+    And the scheduler has 2 batches
+
+  Scenario: U112 - a parallel-safe behavior batch is updated by the fork/join pool
+    Given a Game is instantiated
+    When I Add 1000 GameEntity with a parallel-safe counted behavior
+    And the behaviors are updated 3 times in parallel above 100 behaviors
+    Then all the parallel-safe behaviors have been updated 3 times
+    And the scheduler has 1 batch
+
+  Scenario: U113 - the level of detail of a child behavior depends on its world position
+    Given a Game is instantiated with the "test-lod" configuration
+    And the camera "cam" of 200x200 at 0.0,0.0 is the current one
+    When I Add a new counted GameEntity named "ship" at 1000.0,50.0
+    And the GameEntity "ship" has a counted child "turret" at -950.0,0.0
+    And I update the transform of the GameEntity "ship"
+    And the behaviors are updated 8 times with a 0.125 step
+    Then the GameEntity "ship" has been updated 0 times
+    And the GameEntity "turret" has been updated 8 times
+
+  Scenario: U114 - an integer set by name to a Double attribute is widened
+    Given a Game is instantiated
+    And I Add a new GameEntity named "runner"
+    When I set the attribute "maxSpeed" of the GameEntity "runner" to the integer 2
+    Then the typed max speed of the GameEntity "runner" is 2.0
+    And setting the attribute "maxSpeed" of the GameEntity "runner" to the text "fast" is rejected
+    And the typed max speed of the GameEntity "runner" is 2.0
+
+  Scenario: U115 - an attribute set by a not registered name does not register its key
+    Given a Game is instantiated
+    And I Add a new GameEntity named "runner"
+    When I set the attribute "u115.speed" of the GameEntity "runner" to the integer 3
+    Then the attribute "u115.speed" of the GameEntity "runner" is the integer 3
+    And the attribute "u115.speed" can be registered as a Double key
@@ -0,0 +1,10 @@
+Feature: U400 - the Game has Input
+
+  The Input can record the key states of each frame and replay them.
+
+  Scenario: U401 - a recorded input session is replayed with the same key states
+    Given an Input recording to a temporary file with the seed 1234 and a step rate of 50.0
+    When the frames are recorded with the pressed keys "65|65|65,66||66|66"
+    And the recorded file is replayed
+    Then the replay seed is 1234 and the step rate is 50.0
+    And the replayed frames have the pressed keys "65|65|65,66||66|66"
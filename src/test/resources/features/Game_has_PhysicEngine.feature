@@ -0,0 +1,151 @@
+Feature: U300 - the Game has a PhysicEngine
+
+  The PhysicEngine updates all the GameEntity of the Game according to the World and its Influencers.
+
+  Scenario: U301 - the PhysicEngine update does not allocate memory in steady state
+    Given a Game is instantiated
+    And I add 100 GameEntity with a default Material
+    And I add an Influencer named "wind" at 0.0,0.0 sized 320.0,200.0 with force 0.5,0.0
+    And I run the PhysicEngine 200 times with 16 ms steps
+    Then the PhysicEngine allocates no memory during 100 steps of 16 ms
+
+  Scenario: U302 - a GameEntity at rest falls asleep and wakes up when a force is applied
+    Given a Game is instantiated with the "test-sleep" configuration
+    And I Add a new GameEntity named "crate" at 100.0,384.0
+    And the GameEntity "crate" has a default Material
+    And I run the PhysicEngine 120 times with 16 ms steps
+    Then the GameEntity "crate" is sleeping
+    And I apply a force of 0.0,-100.0 to the GameEntity "crate"
+    And the GameEntity "crate" is not sleeping
+
+  Scenario Outline: U303 - a fast GameEntity bounces on the play area bounds whatever the step duration
+    Given a Game is instantiated with the "test-ccd" configuration
+    And the World has no friction
+    And I Add a new GameEntity named "ball" at 500.0,100.0
+    And the GameEntity "ball" has a Material with elasticity 0.5 and friction 1.0
+    And the GameEntity "ball" moves at 500.0,0.0
+    And I run the PhysicEngine <steps> times with <duration> ms steps
+    Then the GameEntity "ball" is at x 436.0
+
+    Examples:
+      | steps | duration |
+      | 10    | 100      |
+      | 100   | 10       |
+
+  Scenario: U304 - a sub-stepped GameEntity is integrated with smaller steps
+    Given a Game is instantiated with the "test-substep" configuration
+    And the World has no friction
+    And I Add a new GameEntity named "ball" at 100.0,100.0
+    And the GameEntity "ball" has a Material with elasticity 0.5 and friction 1.0
+    And the GameEntity "ball" has a mass of 10.0
+    And the GameEntity "ball" is sub-stepped 4 times
+    And I run the PhysicEngine 1 times with 100 ms steps
+    Then the GameEntity "ball" is at y 100.6125
+
+  Scenario: U305 - two overlapping boxes bounce along their smallest overlap
+    Given a CollisionSystem
+    And a RECTANGLE body "a" at 0.0,0.0 sized 10.0,10.0 moving at 5.0,0.0
+    And a RECTANGLE body "b" at 8.0,1.0 sized 10.0,10.0 moving at -5.0,0.0
+    When the collisions are resolved
+    Then there is 1 contact
+    And the contact goes from "a" to "b" along 1.0,0.0 with a penetration of 2.0
+    And the body "a" moves at -5.0,0.0
+    And the body "b" moves at 5.0,0.0
+
+  Scenario Outline: U306 - a circle and a box collide whatever their order along the sweep axis
+    Given a CollisionSystem
+    And a <first> body "first" at 0.0,0.0 sized 10.0,10.0 moving at 0.0,0.0
+    And a <second> body "second" at 9.0,0.0 sized 10.0,10.0 moving at 0.0,0.0
+    When the collisions are resolved
+    Then there is 1 contact
+    And the contact goes from "first" to "second" along 1.0,0.0 with a penetration of 1.0
+
+    Examples:
+      | first     | second    |
+      | CIRCLE    | RECTANGLE |
+      | RECTANGLE | CIRCLE    |
+
+  Scenario: U307 - the impulse pushes the bodies apart along the contact normal
+    Given a CollisionSystem
+    And a RECTANGLE body "box" at 0.0,10.0 sized 20.0,10.0 moving at 0.0,0.0
+    And a CIRCLE body "ball" at 5.0,1.0 sized 10.0,10.0 moving at 0.0,4.0
+    When the collisions are resolved
+    Then there is 1 contact
+    And the contact goes from "box" to "ball" along 0.0,-1.0 with a penetration of 1.0
+    And the body "ball" moves at 0.0,0.0
+    And the body "box" moves at 0.0,4.0
+
+  Scenario: U308 - a body pushed by a contact stays inside the play area
+    Given a Game is instantiated with the "test-collision" configuration
+    And the World has no friction
+    And I Add a new GameEntity named "left" at 613.0,100.0
+    And the GameEntity "left" has a default Material
+    And the GameEntity "left" has a mass of 10.0
+    And I Add a new GameEntity named "right" at 623.0,100.0
+    And the GameEntity "right" has a default Material
+    And the GameEntity "right" has a mass of 10.0
+    And I run the PhysicEngine 1 times with 16 ms steps
+    Then the GameEntity "right" is inside the play area
+    And the GameEntity "right" is at x 624.0
+
+  Scenario Outline: U309 - the batched integration gives the same positions as the entity by entity one
+    When 200 bodies are integrated 120 times with the "test" and the "<configuration>" configurations
+    Then all the bodies are at the same position
+
+    Examples:
+      | configuration |
+      | test-batch    |
+      | test-simd     |
+
+  Scenario: U310 - a sleeping GameEntity wakes up when the gravity is flipped
+    Given a Game is instantiated with the "test-sleep" configuration
+    And I Add a new GameEntity named "crate" at 100.0,384.0
+    And the GameEntity "crate" has a default Material
+    And I run the PhysicEngine 120 times with 16 ms steps
+    Then the GameEntity "crate" is sleeping
+    And I type the key "g"
+    And I run the PhysicEngine 1 times with 16 ms steps
+    Then the GameEntity "crate" is not sleeping
+
+  Scenario: U311 - a slow contact does not change the state of a sleeping body
+    Given a CollisionSystem waking the bodies above 2.0
+    And a RECTANGLE body "crate" at 0.0,0.0 sized 10.0,10.0 moving at 0.0,0.0
+    And the body "crate" is sleeping
+    And a RECTANGLE body "pebble" at 8.0,1.0 sized 10.0,10.0 moving at -1.0,0.0
+    When the collisions are resolved
+    Then there is 1 contact
+    And the body "crate" is still sleeping
+    And the body "crate" is at 0.0,0.0
+    And the body "crate" moves at 0.0,0.0
+    And the body "pebble" moves at 1.0,0.0
+
+  Scenario: U312 - the influence field gives the same effect as the influencers list inside an influencer
+    When 20 bodies inside an influencer are integrated 20 times with the "test" and the "test-field" configurations
+    Then all the bodies are at the same position
+    And all the bodies are pushed by the influencer
+
+  Scenario: U313 - an Influencer replaced by another one with the same name leaves the World
+    Given a Game is instantiated
+    And I add an Influencer named "wind" at 0.0,0.0 sized 320.0,200.0 with force 0.5,0.0
+    When I replace the Influencer "wind" by a new one with force -0.5,0.0
+    Then the World has 1 influencer
+    And the replaced Influencer "wind" is not in the World
+
+  Scenario Outline: U314 - a GameEntity removed from the EntityManager only is not integrated anymore
+    Given a Game is instantiated with the "<configuration>" configuration
+    And I Add a new GameEntity named "crate" at 100.0,100.0
+    And the GameEntity "crate" has a default Material
+    And the GameEntity "crate" has a mass of 10.0
+    And I run the PhysicEngine 2 times with 16 ms steps
+    When I remove the GameEntity "crate" from the EntityManager only
+    And I run the PhysicEngine 10 times with 16 ms steps
+    Then the removed GameEntity "crate" has not moved
+
+    Examples:
+      | configuration |
+      | test          |
+      | test-batch    |
+
+  Scenario: U315 - the parallel integration gives the same positions as the sequential one
+    When 200 bodies are integrated 120 times with the "test" and the "test-parallel" configurations
+    Then all the bodies are at the same position
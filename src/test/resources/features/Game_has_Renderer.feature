@@ -0,0 +1,55 @@
+Feature: U500 - the Game has Renderer
+
+  The Renderer only draws the entities intersecting the camera view, in the entity list order.
+
+  Scenario: U501 - only the entities in the camera view are drawn, in the entity list order
+    Given a Game is instantiated with the "test-culling" configuration
+    And the camera "cam" of 320x200 at 0.0,0.0 is the current one
+    And I Add a new GameEntity named "far" at 600.0,350.0
+    And I Add a new GameEntity named "d" at 200.0,150.0
+    And I Add a new GameEntity named "b" at 10.0,10.0
+    And I Add a new GameEntity named "edge" at 330.0,50.0
+    And I Add a new GameEntity named "out" at 400.0,50.0
+    And I Add a new GameEntity named "hud" at 600.0,350.0
+    And the GameEntity "hud" is stick to camera
+    And all the entities have a recording draw behavior
+    And the transforms of the entities are updated
+    When the Renderer draws a frame
+    Then the drawn entities are "d,b,edge,hud"
+    And the drawn behaviors are "d,b,edge,hud"
+
+  Scenario: U502 - without culling all the entities are drawn
+    Given a Game is instantiated with the "test" configuration
+    And the camera "cam" of 320x200 at 0.0,0.0 is the current one
+    And I Add a new GameEntity named "far" at 600.0,350.0
+    And I Add a new GameEntity named "b" at 10.0,10.0
+    And all the entities have a recording draw behavior
+    And the transforms of the entities are updated
+    When the Renderer draws a frame
+    Then the drawn entities are "far,b"
+    And the drawn behaviors are "far,b"
+
+  Scenario: U503 - the behaviors of a culled entity are drawn when their draw extent reaches the view
+    Given a Game is instantiated with the "test-culling" configuration
+    And the camera "cam" of 320x200 at 0.0,0.0 is the current one
+    And I Add a new GameEntity named "reaching" at 400.0,50.0
+    And I Add a new GameEntity named "short" at 600.0,50.0
+    And the GameEntity "reaching" has a recording draw behavior reaching 100.0
+    And the GameEntity "short" has a recording draw behavior reaching 100.0
+    And the transforms of the entities are updated
+    When the Renderer draws a frame
+    Then the drawn entities are ""
+    And the drawn behaviors are "reaching"
+
+  Scenario: U504 - a snapshot is drawn as the live frame it was captured from
+    Given a Game is instantiated
+    And the camera "cam" of 320x200 at 40.0,20.0 is the current one
+    And I Add a new GameEntity named "player" at 100.0,60.0
+    And I Add a new GameEntity named "crate" at 200.0,120.0
+    And the transforms of the entities are updated
+    When the Renderer draws a live frame
+    And the game is captured into a snapshot
+    And I Add a new GameEntity named "late" at 150.0,90.0
+    And the GameEntity "crate" is moved to 10.0,10.0
+    And the Renderer draws the snapshot
+    Then the snapshot frame is the live frame
@@ -0,0 +1,38 @@
+Feature: U800 - the Game has a SpatialGrid
+
+  The SpatialGrid indexes items by the cells their bounding box overlaps, and a query
+  returns each item overlapping the cells of the requested area only once.
+
+  Background:
+    Given a SpatialGrid of 640x400 with cells of 64.0
+
+  Scenario: U801 - a query returns the items of the covered cells
+    When the item "a" is put at 10.0,10.0 with a size of 8.0x8.0
+    And the item "b" is put at 300.0,200.0 with a size of 8.0x8.0
+    Then the grid has 2 items
+    And the query 0.0,0.0 of 60.0x60.0 returns "a"
+    And the query 280.0,180.0 of 40.0x40.0 returns "b"
+    And the query 100.0,100.0 of 40.0x40.0 returns ""
+
+  Scenario: U802 - an item overlapping several cells is returned once
+    When the item "large" is put at 50.0,50.0 with a size of 200.0x100.0
+    Then the query 0.0,0.0 of 640.0x400.0 returns "large"
+    And the query 130.0,130.0 of 10.0x10.0 returns "large"
+
+  Scenario: U803 - a moved item is only found at its new position
+    When the item "a" is put at 10.0,10.0 with a size of 8.0x8.0
+    And the item "a" is put at 500.0,300.0 with a size of 8.0x8.0
+    Then the grid has 1 items
+    And the query 0.0,0.0 of 60.0x60.0 returns ""
+    And the query 490.0,290.0 of 30.0x30.0 returns "a"
+
+  Scenario: U804 - a removed item is not found anymore
+    When the item "a" is put at 10.0,10.0 with a size of 8.0x8.0
+    And the item "b" is put at 20.0,20.0 with a size of 8.0x8.0
+    And the item "a" is removed from the grid
+    Then the grid has 1 items
+    And the query 0.0,0.0 of 60.0x60.0 returns "b"
+
+  Scenario: U805 - an item outside the grid area is clamped into the border cells
+    When the item "out" is put at 700.0,-50.0 with a size of 8.0x8.0
+    Then the query 600.0,0.0 of 30.0x30.0 returns "out"